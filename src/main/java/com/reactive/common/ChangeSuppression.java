@@ -0,0 +1,115 @@
+package com.reactive.common;
+
+import java.time.Duration;
+
+// Decides which temperature changes are worth telling an observer about.
+// A change is suppressed when it falls inside the absolute dead-band
+// (|delta| <= absolute) or the relative one (|delta| <= relative * |last|),
+// or when it arrives sooner than minInterval after the observer's last
+// notification. A heartbeat lets a value through after that much silence even
+// if it is inside the dead-band. The check runs when a temperature is set, so
+// the heartbeat fires with the first reading after the silence rather than on
+// a timer. Instances are immutable; the with* methods return modified copies.
+// Shared by the observer and functional weather stations; each keeps one
+// Tracker per observer or subscriber.
+public final class ChangeSuppression {
+    private static final ChangeSuppression NONE = new ChangeSuppression(false, 0.0, 0.0, 0L, 0L);
+
+    private final boolean enabled;
+    private final double absoluteDeadband;
+    private final double relativeDeadband;
+    private final long minIntervalNanos;
+    private final long heartbeatNanos;
+
+    private ChangeSuppression(boolean enabled, double absoluteDeadband, double relativeDeadband,
+                              long minIntervalNanos, long heartbeatNanos) {
+        this.enabled = enabled;
+        this.absoluteDeadband = absoluteDeadband;
+        this.relativeDeadband = relativeDeadband;
+        this.minIntervalNanos = minIntervalNanos;
+        this.heartbeatNanos = heartbeatNanos;
+    }
+
+    // Notify on every call, as the stations always did
+    public static ChangeSuppression none() {
+        return NONE;
+    }
+
+    // Only suppress repeats of the exact value last notified
+    public static ChangeSuppression onChange() {
+        return new ChangeSuppression(true, 0.0, 0.0, 0L, 0L);
+    }
+
+    // Suppress changes of at most the given number of degrees
+    public ChangeSuppression withAbsoluteDeadband(double degrees) {
+        if (degrees < 0 || Double.isNaN(degrees)) {
+            throw new IllegalArgumentException("Dead-band must not be negative");
+        }
+        return new ChangeSuppression(true, degrees, relativeDeadband, minIntervalNanos, heartbeatNanos);
+    }
+
+    // Suppress changes of at most the given fraction of the last value, e.g. 0.01 for 1%
+    public ChangeSuppression withRelativeDeadband(double fraction) {
+        if (fraction < 0 || Double.isNaN(fraction)) {
+            throw new IllegalArgumentException("Dead-band must not be negative");
+        }
+        return new ChangeSuppression(true, absoluteDeadband, fraction, minIntervalNanos, heartbeatNanos);
+    }
+
+    // Notify each observer at most once per interval
+    public ChangeSuppression withMinInterval(Duration interval) {
+        return new ChangeSuppression(true, absoluteDeadband, relativeDeadband, nanos(interval), heartbeatNanos);
+    }
+
+    // Let a reading through after this much silence, even inside the dead-band
+    public ChangeSuppression withHeartbeat(Duration heartbeat) {
+        return new ChangeSuppression(true, absoluteDeadband, relativeDeadband, minIntervalNanos, nanos(heartbeat));
+    }
+
+    private static long nanos(Duration duration) {
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("Duration must not be negative");
+        }
+        return duration.toNanos();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Per-observer state: what was last notified and when
+    public static final class Tracker {
+        private boolean notified;
+        private double lastValue;
+        private long lastNanos;
+        private long suppressedCount;
+
+        // Records the notification when it returns true
+        public synchronized boolean shouldNotify(ChangeSuppression policy, double value, long nowNanos) {
+            if (!policy.enabled || !notified || accept(policy, value, nowNanos - lastNanos)) {
+                notified = true;
+                lastValue = value;
+                lastNanos = nowNanos;
+                return true;
+            }
+            suppressedCount++;
+            return false;
+        }
+
+        private boolean accept(ChangeSuppression policy, double value, long elapsedNanos) {
+            if (policy.heartbeatNanos > 0 && elapsedNanos >= policy.heartbeatNanos) {
+                return true;
+            }
+            if (elapsedNanos < policy.minIntervalNanos) {
+                return false;
+            }
+            double delta = Math.abs(value - lastValue);
+            // NaN compares false everywhere, so a NaN reading is never suppressed
+            return !(delta <= policy.absoluteDeadband || delta <= policy.relativeDeadband * Math.abs(lastValue));
+        }
+
+        public synchronized long getSuppressedCount() {
+            return suppressedCount;
+        }
+    }
+}
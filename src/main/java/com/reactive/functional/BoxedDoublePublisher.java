@@ -0,0 +1,43 @@
+package com.reactive.functional;
+
+// Bridge from the primitive double family back to a boxed FunctionalPublisher.
+// Boxing happens once, at the point the stream leaves the primitive pipeline.
+class BoxedDoublePublisher extends OperatorPublisher<Double, Double> {
+
+    BoxedDoublePublisher(DoublePublisher source) {
+        super(subscriber -> source.subscribe(new BoxingSubscriber(subscriber)));
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super Double> subscriber) {
+        source.subscribe(subscriber);
+    }
+
+    private static class BoxingSubscriber implements DoubleSubscriber {
+        private final Subscriber<? super Double> downstream;
+
+        BoxingSubscriber(Subscriber<? super Double> downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            downstream.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(double item) {
+            downstream.onNext(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            downstream.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            downstream.onComplete();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.reactive.functional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Collects items into lists, closed either every count items or on every tick
+// of a timer. Each batch is a fresh list sized for the batch and handed
+// downstream as is, so nothing is copied on the way out.
+class BufferPublisher<T> extends OperatorPublisher<T, List<T>> {
+    private final int count;
+    private final Duration period;
+    private final TimerService timer;
+
+    private BufferPublisher(Publisher<T> source, int count, Duration period, TimerService timer) {
+        super(source);
+        this.count = count;
+        this.period = period;
+        this.timer = timer;
+    }
+
+    static <T> BufferPublisher<T> ofCount(Publisher<T> source, int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive");
+        }
+        return new BufferPublisher<>(source, count, null, null);
+    }
+
+    static <T> BufferPublisher<T> ofDuration(Publisher<T> source, Duration period, TimerService timer) {
+        TimedBatcher.checkPeriod(period);
+        return new BufferPublisher<>(source, 0, period, timer);
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super List<T>> subscriber) {
+        if (period == null) {
+            source.subscribe(new CountSubscriber<>(subscriber, count));
+        } else {
+            source.subscribe(new TimedSubscriber<>(subscriber, period, timer));
+        }
+    }
+
+    // Each requested list is count upstream items, so demand is multiplied
+    // on its way upstream and lists never pile up
+    private static class CountSubscriber<T> implements Subscriber<T> {
+        private final Subscriber<? super List<T>> downstream;
+        private final int count;
+        private Subscription upstream;
+        private EmissionQueue<List<T>> out;
+        private List<T> buffer;
+
+        CountSubscriber(Subscriber<? super List<T>> downstream, int count) {
+            this.downstream = downstream;
+            this.count = count;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.upstream = subscription;
+            this.out = new EmissionQueue<>(downstream, FunctionalPublisher.DEFAULT_BUFFER_SIZE,
+                    n -> upstream.request(Demand.multiply(n, count)), queue -> upstream.cancel());
+            downstream.onSubscribe(out);
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (buffer == null) {
+                buffer = new ArrayList<>(count);
+            }
+            buffer.add(item);
+            if (buffer.size() == count) {
+                List<T> full = buffer;
+                buffer = null;
+                out.offer(full);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            buffer = null;
+            out.terminate(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            if (buffer != null) {
+                out.offer(buffer);
+                buffer = null;
+            }
+            out.terminate(null);
+        }
+    }
+
+    // Emits whatever arrived during each period; idle periods emit nothing
+    private static class TimedSubscriber<T> extends TimedBatcher<List<T>> implements Subscriber<T> {
+        private List<T> buffer = new ArrayList<>();
+
+        TimedSubscriber(Subscriber<? super List<T>> downstream, Duration period, TimerService timer) {
+            super(downstream, period, timer);
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            start(subscription);
+        }
+
+        @Override
+        public void onNext(T item) {
+            synchronized (lock) {
+                if (!isTerminated()) {
+                    buffer.add(item);
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            finish(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            finish(null);
+        }
+
+        @Override
+        protected List<T> closeBatch() {
+            if (buffer.isEmpty()) {
+                return null;
+            }
+            List<T> full = buffer;
+            // Size the next batch like this one to avoid regrowing it
+            buffer = new ArrayList<>(full.size());
+            return full;
+        }
+    }
+}
@@ -1,40 +1,178 @@
 package com.reactive.functional;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
-// Buffered publisher implementation
+// Buffered publisher implementation. Items are kept in a fixed-size ring
+// shared by all subscribers; each subscription reads it through its own
+// cursor, so every subscriber sees every item published after it subscribed.
 class BufferedPublisher<T> implements Publisher<T> {
-    private final Queue<T> buffer = new ConcurrentLinkedQueue<>();
+    static final Duration DEFAULT_BLOCK_TIMEOUT = Duration.ofSeconds(1);
+    static final int DRAIN_BATCH_SIZE = 32;
+
+    // What publish() does when a subscriber is maxBufferSize items behind
+    enum OverflowStrategy {
+        // Discard the item being published
+        DROP_LATEST,
+        // Overwrite the oldest item; lagging subscribers skip it
+        DROP_OLDEST,
+        // Wait up to the block timeout for space, then discard the new item
+        BLOCK,
+        // Terminate lagging subscribers with an error, then publish
+        ERROR
+    }
+
+    private final Object[] ring;
     private final int maxBufferSize;
-    private final List<SubscriptionImpl> subscriptions = new ArrayList<>();
+    private final OverflowStrategy overflowStrategy;
+    private final long blockTimeoutNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final SubscriberRegistry<SubscriptionImpl> subscriptions = new SubscriberRegistry<>();
+    private final Map<OverflowStrategy, LongAdder> dropCounts = new EnumMap<>(OverflowStrategy.class);
+    // Sequence number of the next published item, guarded by lock
+    private long tail;
+    // Registered subscriptions per cursor position, guarded by lock. Cursors
+    // always lie in [tail - maxBufferSize, tail], so indexing by sequence
+    // modulo maxBufferSize + 1 never mixes two positions.
+    private final int[] cursorCounts;
 
     public BufferedPublisher(int maxBufferSize) {
+        this(maxBufferSize, OverflowStrategy.DROP_LATEST);
+    }
+
+    public BufferedPublisher(int maxBufferSize, OverflowStrategy overflowStrategy) {
+        this(maxBufferSize, overflowStrategy, DEFAULT_BLOCK_TIMEOUT);
+    }
+
+    // blockTimeout only applies to OverflowStrategy.BLOCK
+    public BufferedPublisher(int maxBufferSize, OverflowStrategy overflowStrategy, Duration blockTimeout) {
+        if (maxBufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive");
+        }
+        this.ring = new Object[maxBufferSize];
+        this.cursorCounts = new int[maxBufferSize + 1];
         this.maxBufferSize = maxBufferSize;
+        this.overflowStrategy = overflowStrategy;
+        this.blockTimeoutNanos = blockTimeout.toNanos();
+        for (OverflowStrategy strategy : OverflowStrategy.values()) {
+            dropCounts.put(strategy, new LongAdder());
+        }
     }
 
     @Override
     public void subscribe(Subscriber<? super T> subscriber) {
         SubscriptionImpl subscription = new SubscriptionImpl(subscriber);
-        subscriptions.add(subscription);
+        lock.lock();
+        try {
+            subscription.cursor = tail;
+            subscription.registered = true;
+            cursorCounts[countIndex(tail)]++;
+            subscriptions.add(subscription);
+        } finally {
+            lock.unlock();
+        }
         subscriber.onSubscribe(subscription);
     }
 
-    public void publish(T item) {
-        if (buffer.size() >= maxBufferSize) {
-            // Buffer full - apply strategy (drop, block, etc.)
-            return;
+    // Returns false if the item was discarded because the buffer was full
+    public boolean publish(T item) {
+        List<SubscriptionImpl> overflowed = null;
+
+        lock.lock();
+        try {
+            if (isFull()) {
+                switch (overflowStrategy) {
+                    case DROP_LATEST:
+                        dropCounts.get(OverflowStrategy.DROP_LATEST).increment();
+                        return false;
+                    case DROP_OLDEST:
+                        subscriptions.forEach(subscription -> {
+                            if (tail - subscription.cursor >= maxBufferSize) {
+                                subscription.moveCursor(1);
+                                dropCounts.get(OverflowStrategy.DROP_OLDEST).increment();
+                            }
+                        });
+                        break;
+                    case BLOCK:
+                        if (!awaitSpace()) {
+                            dropCounts.get(OverflowStrategy.BLOCK).increment();
+                            return false;
+                        }
+                        break;
+                    case ERROR:
+                        List<SubscriptionImpl> lagging = new ArrayList<>();
+                        subscriptions.forEach(subscription -> {
+                            if (tail - subscription.cursor >= maxBufferSize) {
+                                lagging.add(subscription);
+                                subscription.unregister();
+                            }
+                        });
+                        overflowed = lagging;
+                        dropCounts.get(OverflowStrategy.ERROR).add(overflowed.size());
+                        break;
+                }
+            }
+
+            ring[(int) (tail % maxBufferSize)] = item;
+            tail++;
+        } finally {
+            lock.unlock();
         }
 
-        buffer.add(item);
+        if (overflowed != null) {
+            for (SubscriptionImpl subscription : overflowed) {
+                subscription.overflow();
+            }
+        }
 
         // Notify all subscriptions of new item
-        for (SubscriptionImpl subscription : subscriptions) {
-            subscription.tryDispatch();
+        subscriptions.forEach(SubscriptionImpl::tryDispatch);
+        return true;
+    }
+
+    // Number of items discarded, or subscribers terminated, by the given strategy
+    public long getDroppedCount(OverflowStrategy strategy) {
+        return dropCounts.get(strategy).sum();
+    }
+
+    public OverflowStrategy getOverflowStrategy() {
+        return overflowStrategy;
+    }
+
+    // O(1): the ring is full when some subscription lags by a whole buffer,
+    // i.e. its cursor sits at tail - maxBufferSize. Guarded by lock.
+    private boolean isFull() {
+        return tail >= maxBufferSize && cursorCounts[countIndex(tail - maxBufferSize)] > 0;
+    }
+
+    private int countIndex(long sequence) {
+        return (int) (sequence % cursorCounts.length);
+    }
+
+    private boolean awaitSpace() {
+        long remaining = blockTimeoutNanos;
+        try {
+            while (isFull()) {
+                if (remaining <= 0L) {
+                    return false;
+                }
+                remaining = notFull.awaitNanos(remaining);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
         }
     }
 
@@ -42,6 +180,13 @@ class BufferedPublisher<T> implements Publisher<T> {
         private final Subscriber<? super T> subscriber;
         private final AtomicLong requested = new AtomicLong(0);
         private final AtomicBoolean cancelled = new AtomicBoolean(false);
+        private final AtomicInteger wip = new AtomicInteger(0);
+        // Items taken from the ring but not yet delivered, only touched by the drainer
+        private final Object[] batch = new Object[Math.min(maxBufferSize, DRAIN_BATCH_SIZE)];
+        // Sequence number of the next item to deliver, guarded by lock
+        private long cursor;
+        // Whether cursor is counted in cursorCounts, guarded by lock
+        private boolean registered;
 
         public SubscriptionImpl(Subscriber<? super T> subscriber) {
             this.subscriber = subscriber;
@@ -50,34 +195,121 @@ class BufferedPublisher<T> implements Publisher<T> {
         @Override
         public void request(long n) {
             if (n <= 0) {
-                subscriber.onError(new IllegalArgumentException("Requested amount must be positive"));
+                // Torn down first, so its cursor stops holding the buffer full
+                if (cancelled.compareAndSet(false, true)) {
+                    release();
+                    subscriber.onError(new IllegalArgumentException("Requested amount must be positive"));
+                }
                 return;
             }
 
-            requested.addAndGet(n);
+            Demand.add(requested, n);
             tryDispatch();
         }
 
         @Override
         public void cancel() {
             cancelled.set(true);
-            subscriptions.remove(this);
+            release();
+        }
+
+        private void release() {
+            lock.lock();
+            try {
+                unregister();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Guarded by lock
+        void unregister() {
+            if (registered) {
+                registered = false;
+                cursorCounts[countIndex(cursor)]--;
+                subscriptions.remove(this);
+            }
+        }
+
+        // Guarded by lock
+        void moveCursor(int count) {
+            if (registered) {
+                cursorCounts[countIndex(cursor)]--;
+                cursorCounts[countIndex(cursor + count)]++;
+            }
+            cursor += count;
+        }
+
+        void overflow() {
+            if (cancelled.compareAndSet(false, true)) {
+                subscriber.onError(new IllegalStateException(
+                        "Subscriber fell " + maxBufferSize + " items behind the buffer"));
+            }
         }
 
+        // Copy up to max items into batch under a single lock acquisition
+        private int poll(Object[] batch, int max) {
+            lock.lock();
+            try {
+                int count = (int) Math.min(max, tail - cursor);
+                for (int i = 0; i < count; i++) {
+                    batch[i] = ring[(int) ((cursor + i) % maxBufferSize)];
+                }
+                if (count > 0) {
+                    moveCursor(count);
+                }
+                if (count > 0 && overflowStrategy == OverflowStrategy.BLOCK) {
+                    notFull.signalAll();
+                }
+                return count;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Trampolined drain: only the thread that moves wip from 0 delivers items.
+        // A request(n) made from inside onNext just adds demand and bumps wip,
+        // and the active drainer picks it up on its next pass instead of recursing.
+        @SuppressWarnings("unchecked")
         public void tryDispatch() {
-            // Check if cancelled
-            if (cancelled.get()) {
+            if (wip.getAndIncrement() != 0) {
                 return;
             }
 
-            // Dispatch as many items as requested
-            while (requested.get() > 0 && !buffer.isEmpty()) {
-                T item = buffer.poll();
-                if (item != null) {
-                    subscriber.onNext(item);
-                    requested.decrementAndGet();
+            int missed = 1;
+            for (;;) {
+                long r = requested.get();
+                long e = 0L;
+
+                while (e != r) {
+                    if (cancelled.get()) {
+                        return;
+                    }
+                    int count = poll(batch, (int) Math.min(batch.length, r - e));
+                    if (count == 0) {
+                        break;
+                    }
+                    for (int i = 0; i < count; i++) {
+                        if (cancelled.get()) {
+                            return;
+                        }
+                        T item = (T) batch[i];
+                        batch[i] = null;
+                        subscriber.onNext(item);
+                    }
+                    e += count;
+                }
+
+                if (e != 0L) {
+                    Demand.produced(requested, e);
+                }
+
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    break;
                 }
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,69 @@
+package com.reactive.functional;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Helpers for tracking outstanding Subscription demand
+final class Demand {
+    private Demand() {
+    }
+
+    // Add n to the requested amount, capping at Long.MAX_VALUE (unbounded)
+    static long add(AtomicLong requested, long n) {
+        for (;;) {
+            long current = requested.get();
+            if (current == Long.MAX_VALUE) {
+                return Long.MAX_VALUE;
+            }
+            long next = current + n;
+            if (next < 0L) {
+                next = Long.MAX_VALUE;
+            }
+            if (requested.compareAndSet(current, next)) {
+                return current;
+            }
+        }
+    }
+
+    // Subtract delivered items unless demand is unbounded
+    static long produced(AtomicLong requested, long n) {
+        for (;;) {
+            long current = requested.get();
+            if (current == Long.MAX_VALUE) {
+                return Long.MAX_VALUE;
+            }
+            long next = current - n;
+            if (next < 0L) {
+                throw new IllegalStateException("More produced than requested: " + next);
+            }
+            if (requested.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    // Take one unit of demand before delivering an item; false when none is
+    // outstanding. Unlike checking and then calling produced(), concurrent
+    // callers can never claim the same unit.
+    static boolean claim(AtomicLong requested) {
+        for (;;) {
+            long current = requested.get();
+            if (current == Long.MAX_VALUE) {
+                return true;
+            }
+            if (current == 0L) {
+                return false;
+            }
+            if (requested.compareAndSet(current, current - 1)) {
+                return true;
+            }
+        }
+    }
+
+    // n * factor for demand that fans out upstream, capping at Long.MAX_VALUE
+    static long multiply(long n, long factor) {
+        if (n == Long.MAX_VALUE || n > Long.MAX_VALUE / factor) {
+            return Long.MAX_VALUE;
+        }
+        return n * factor;
+    }
+}
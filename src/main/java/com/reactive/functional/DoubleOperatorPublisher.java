@@ -0,0 +1,30 @@
+package com.reactive.functional;
+
+// Base class for primitive publishers derived from an upstream by an operator.
+// Like OperatorPublisher the result is read-only: emit(), complete() and
+// error() throw UnsupportedOperationException.
+abstract class DoubleOperatorPublisher extends FunctionalDoublePublisher {
+
+    DoubleOperatorPublisher() {
+        super(FunctionalPublisher.DEFAULT_BUFFER_SIZE, false);
+    }
+
+    @Override
+    public abstract void subscribe(DoubleSubscriber subscriber);
+
+    // Operator publishers are driven by their upstream, not by direct emission
+    @Override
+    public final void emit(double value) {
+        throw new UnsupportedOperationException("Emit on the source publisher instead");
+    }
+
+    @Override
+    public final void complete() {
+        throw new UnsupportedOperationException("Complete the source publisher instead");
+    }
+
+    @Override
+    public final void error(Throwable throwable) {
+        throw new UnsupportedOperationException("Signal errors on the source publisher instead");
+    }
+}
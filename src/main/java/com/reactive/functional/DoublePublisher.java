@@ -0,0 +1,15 @@
+package com.reactive.functional;
+
+// Primitive double counterpart of Publisher, avoiding a Double per item
+interface DoublePublisher {
+    void subscribe(DoubleSubscriber subscriber);
+}
+
+// Primitive double counterpart of Subscriber; demand is still signalled
+// through the ordinary Subscription
+interface DoubleSubscriber {
+    void onSubscribe(Subscription subscription);
+    void onNext(double item);
+    void onError(Throwable throwable);
+    void onComplete();
+}
@@ -0,0 +1,53 @@
+package com.reactive.functional;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Bounded single-producer/single-consumer queue of primitive doubles
+final class DoubleRingBuffer {
+    private final double[] buffer;
+    private final int mask;
+    private final int capacity;
+    private final AtomicLong producerIndex = new AtomicLong();
+    private final AtomicLong consumerIndex = new AtomicLong();
+
+    DoubleRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.buffer = new double[size];
+        this.mask = size - 1;
+        this.capacity = capacity;
+    }
+
+    // Producer side: returns false when the buffer already holds capacity values
+    boolean offer(double value) {
+        long p = producerIndex.get();
+        if (p - consumerIndex.get() >= capacity) {
+            return false;
+        }
+        buffer[(int) p & mask] = value;
+        producerIndex.lazySet(p + 1);
+        return true;
+    }
+
+    boolean isEmpty() {
+        return consumerIndex.get() == producerIndex.get();
+    }
+
+    // Consumer side: only valid after isEmpty() returned false
+    double poll() {
+        long c = consumerIndex.get();
+        double value = buffer[(int) c & mask];
+        consumerIndex.lazySet(c + 1);
+        return value;
+    }
+
+    // Consumer side: discard everything currently queued
+    void clear() {
+        consumerIndex.lazySet(producerIndex.get());
+    }
+}
@@ -0,0 +1,20 @@
+package com.reactive.functional;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Executors for running subscriber drain loops off the producer's thread
+final class DrainExecutors {
+    // Each drain task gets its own virtual thread, so a subscriber that blocks
+    // parks a cheap virtual thread instead of pinning a platform thread
+    private static final ExecutorService VIRTUAL_THREADS = Executors.newVirtualThreadPerTaskExecutor();
+
+    private DrainExecutors() {
+    }
+
+    // Default executor for publishOn/subscribeOn
+    static Executor virtualThreads() {
+        return VIRTUAL_THREADS;
+    }
+}
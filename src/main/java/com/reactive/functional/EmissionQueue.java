@@ -0,0 +1,171 @@
+package com.reactive.functional;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+// Per-subscriber state shared by FunctionalPublisher and the batching
+// operators: outstanding demand plus a bounded queue of items emitted before
+// they were requested. Only the thread that wins the wip counter runs the
+// drain loop, so onNext calls are never concurrent. With a drain executor the
+// winner hands the loop to it instead, so offer() never calls the subscriber
+// on the offering thread; the timed operators rely on that to keep callbacks
+// off the timer thread and out of their lock.
+//
+// Count-based operators translate demand for batches into upstream demand
+// through onRequest, so the queue never overflows; publishers and time-based
+// operators emit regardless of demand, and a subscriber that falls more than
+// capacity items behind is terminated with an error.
+final class EmissionQueue<R> implements Subscription {
+    private final Subscriber<? super R> subscriber;
+    private final int capacity;
+    private final LongConsumer onRequest;
+    private final Consumer<? super EmissionQueue<R>> onCancel;
+    private final Executor drainExecutor;
+    private final Queue<R> queue;
+    private final AtomicLong requested = new AtomicLong(0);
+    private final AtomicInteger wip = new AtomicInteger(0);
+    private volatile boolean cancelled;
+    private volatile boolean done;
+    private volatile Throwable error;
+
+    // onCancel runs when the subscriber cancels or the queue gives up on it
+    EmissionQueue(Subscriber<? super R> subscriber, int capacity, LongConsumer onRequest,
+                  Consumer<? super EmissionQueue<R>> onCancel) {
+        this(subscriber, capacity, onRequest, onCancel, null);
+    }
+
+    // A null drainExecutor drains on whichever thread signals first
+    EmissionQueue(Subscriber<? super R> subscriber, int capacity, LongConsumer onRequest,
+                  Consumer<? super EmissionQueue<R>> onCancel, Executor drainExecutor) {
+        this.subscriber = subscriber;
+        this.capacity = capacity;
+        this.onRequest = onRequest;
+        this.onCancel = onCancel;
+        this.drainExecutor = drainExecutor;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            onCancel.accept(this);
+            terminate(new IllegalArgumentException("Requested amount must be positive"));
+            return;
+        }
+
+        Demand.add(requested, n);
+        onRequest.accept(n);
+        drain();
+    }
+
+    @Override
+    public void cancel() {
+        if (!cancelled) {
+            cancelled = true;
+            onCancel.accept(this);
+            if (wip.getAndIncrement() == 0) {
+                queue.clear();
+            }
+        }
+    }
+
+    void offer(R item) {
+        if (done || cancelled) {
+            return;
+        }
+        if (!queue.offer(item)) {
+            onCancel.accept(this);
+            terminate(new IllegalStateException(
+                    "Could not emit value due to lack of requests (buffer size " + capacity + ")"));
+            return;
+        }
+        drain();
+    }
+
+    // A null error means normal completion; errors cut ahead of queued items
+    void terminate(Throwable throwable) {
+        if (done || cancelled) {
+            return;
+        }
+        error = throwable;
+        done = true;
+        drain();
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        if (drainExecutor == null) {
+            drainLoop();
+            return;
+        }
+        try {
+            drainExecutor.execute(this::drainLoop);
+        } catch (RejectedExecutionException e) {
+            // Still owned by this thread; deliver here rather than stall
+            drainLoop();
+        }
+    }
+
+    private void drainLoop() {
+        int missed = 1;
+        for (;;) {
+            long r = requested.get();
+            long e = 0L;
+
+            while (e != r) {
+                if (checkTerminated()) {
+                    return;
+                }
+                R item = queue.poll();
+                if (item == null) {
+                    break;
+                }
+                subscriber.onNext(item);
+                e++;
+            }
+
+            if (checkTerminated()) {
+                return;
+            }
+
+            if (e != 0L) {
+                Demand.produced(requested, e);
+            }
+
+            missed = wip.addAndGet(-missed);
+            if (missed == 0) {
+                break;
+            }
+        }
+    }
+
+    private boolean checkTerminated() {
+        if (cancelled) {
+            queue.clear();
+            return true;
+        }
+        if (done) {
+            Throwable t = error;
+            if (t != null) {
+                cancelled = true;
+                queue.clear();
+                subscriber.onError(t);
+                return true;
+            }
+            if (queue.isEmpty()) {
+                cancelled = true;
+                subscriber.onComplete();
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,229 @@
+package com.reactive.functional;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleUnaryOperator;
+
+// Primitive specialization of FunctionalPublisher for streams of doubles such
+// as sensor readings. Items are queued per subscriber in a double[] ring, so
+// nothing is boxed between emit() and onNext(double). The rings are
+// single-producer, so unlike FunctionalPublisher this publisher needs emit()
+// calls to come from one thread at a time; a call that overlaps one on another
+// thread is rejected rather than left to corrupt the rings.
+public class FunctionalDoublePublisher implements DoublePublisher {
+    private final SubscriberRegistry<SubscriptionImpl> subscriptions;
+    // Thread currently inside emit(), or null
+    private final AtomicReference<Thread> producer;
+    private final int bufferSize;
+
+    public FunctionalDoublePublisher() {
+        this(FunctionalPublisher.DEFAULT_BUFFER_SIZE);
+    }
+
+    // bufferSize bounds how many unrequested items are held per subscriber
+    public FunctionalDoublePublisher(int bufferSize) {
+        this(bufferSize, true);
+    }
+
+    // Operator subclasses replace subscribe() and the emit methods, so they
+    // pass false and skip the state they would never use
+    FunctionalDoublePublisher(int bufferSize, boolean tracksSubscribers) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive");
+        }
+        this.subscriptions = tracksSubscribers ? new SubscriberRegistry<>() : null;
+        this.producer = tracksSubscribers ? new AtomicReference<>() : null;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public void subscribe(DoubleSubscriber subscriber) {
+        SubscriptionImpl subscription = new SubscriptionImpl(subscriber);
+        subscriptions.add(subscription);
+        subscriber.onSubscribe(subscription);
+    }
+
+    // Transform each value without boxing
+    public FunctionalDoublePublisher mapToDouble(DoubleUnaryOperator mapper) {
+        return FusedDoublePublisher.ofMap(this, mapper);
+    }
+
+    // Keep only values matching the predicate
+    public FunctionalDoublePublisher filter(DoublePredicate predicate) {
+        return FusedDoublePublisher.ofFilter(this, predicate);
+    }
+
+    // Bridge back to the boxed publisher family
+    public FunctionalPublisher<Double> boxed() {
+        return new BoxedDoublePublisher(this);
+    }
+
+    // Min/max/mean/count of every count values, without keeping the values
+    public FunctionalPublisher<WindowStats> windowStats(int count) {
+        return WindowStatsPublisher.ofCount(this, count);
+    }
+
+    // Min/max/mean/count of the values arriving in each period, ticked by the shared timer
+    public FunctionalPublisher<WindowStats> windowStats(Duration period) {
+        return WindowStatsPublisher.ofDuration(this, period, TimerService.shared());
+    }
+
+    // Whether consecutive mapToDouble/filter stages were fused into a single stage
+    public boolean isFused() {
+        return false;
+    }
+
+    // Number of stages executed by this publisher's single subscriber hop
+    public int stageCount() {
+        return 0;
+    }
+
+    // Method to emit a value to all subscribers. Calls from different threads
+    // must not overlap: one made while another thread is still emitting throws
+    // IllegalStateException. Reentrant calls from a subscriber are fine.
+    public void emit(double value) {
+        Thread current = Thread.currentThread();
+        if (producer.get() == current) {
+            subscriptions.forEach(SubscriptionImpl::offer, value);
+            return;
+        }
+        if (!producer.compareAndSet(null, current)) {
+            throw new IllegalStateException("emit() called while another thread is emitting");
+        }
+        try {
+            subscriptions.forEach(SubscriptionImpl::offer, value);
+        } finally {
+            producer.set(null);
+        }
+    }
+
+    // Method to signal completion to all subscribers
+    public void complete() {
+        subscriptions.forEach(SubscriptionImpl::terminate, null);
+    }
+
+    // Method to signal error to all subscribers
+    public void error(Throwable throwable) {
+        subscriptions.forEach(SubscriptionImpl::terminate, throwable);
+    }
+
+    // Same demand and drain semantics as FunctionalPublisher's subscriptions
+    private class SubscriptionImpl implements Subscription {
+        private final DoubleSubscriber subscriber;
+        private final DoubleRingBuffer queue = new DoubleRingBuffer(bufferSize);
+        private final AtomicLong requested = new AtomicLong(0);
+        private final AtomicInteger wip = new AtomicInteger(0);
+        private volatile boolean cancelled;
+        private volatile boolean done;
+        private volatile Throwable error;
+
+        public SubscriptionImpl(DoubleSubscriber subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                terminate(new IllegalArgumentException("Requested amount must be positive"));
+                return;
+            }
+
+            Demand.add(requested, n);
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                subscriptions.remove(this);
+                if (wip.getAndIncrement() == 0) {
+                    queue.clear();
+                }
+            }
+        }
+
+        void offer(double item) {
+            if (done || cancelled) {
+                return;
+            }
+            if (!queue.offer(item)) {
+                terminate(new IllegalStateException(
+                        "Could not emit value due to lack of requests (buffer size " + bufferSize + ")"));
+                return;
+            }
+            drain();
+        }
+
+        void terminate(Throwable throwable) {
+            if (done || cancelled) {
+                return;
+            }
+            error = throwable;
+            done = true;
+            subscriptions.remove(this);
+            drain();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            for (;;) {
+                long r = requested.get();
+                long e = 0L;
+
+                while (e != r) {
+                    if (checkTerminated()) {
+                        return;
+                    }
+                    if (queue.isEmpty()) {
+                        break;
+                    }
+                    subscriber.onNext(queue.poll());
+                    e++;
+                }
+
+                if (checkTerminated()) {
+                    return;
+                }
+
+                if (e != 0L) {
+                    Demand.produced(requested, e);
+                }
+
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        private boolean checkTerminated() {
+            if (cancelled) {
+                queue.clear();
+                return true;
+            }
+            if (done) {
+                Throwable t = error;
+                if (t != null) {
+                    cancelled = true;
+                    queue.clear();
+                    subscriber.onError(t);
+                    return true;
+                }
+                if (queue.isEmpty()) {
+                    cancelled = true;
+                    subscriber.onComplete();
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package com.reactive.functional;
 
-import java.util.ArrayList;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 // Publisher interface from Reactive Streams
 interface Publisher<T> {
@@ -25,125 +28,145 @@ interface Subscription {
 
 // A simple Publisher implementation with functional capabilities
 public class FunctionalPublisher<T> implements Publisher<T> {
-    private final List<Subscriber<? super T>> subscribers = new ArrayList<>();
+    static final int DEFAULT_BUFFER_SIZE = 256;
+
+    private final SubscriberRegistry<EmissionQueue<T>> subscriptions;
+    private final int bufferSize;
+
+    public FunctionalPublisher() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    // bufferSize bounds how many unrequested items are held per subscriber
+    public FunctionalPublisher(int bufferSize) {
+        this(bufferSize, true);
+    }
+
+    // Operator subclasses replace subscribe() and the emit methods, so they
+    // pass false and skip the registry they would never use
+    FunctionalPublisher(int bufferSize, boolean tracksSubscribers) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive");
+        }
+        this.subscriptions = tracksSubscribers ? new SubscriberRegistry<>() : null;
+        this.bufferSize = bufferSize;
+    }
 
     @Override
     public void subscribe(Subscriber<? super T> subscriber) {
-        subscribers.add(subscriber);
-        subscriber.onSubscribe(new Subscription() {
-            @Override
-            public void request(long n) {
-                // Implementation of backpressure
-            }
-
-            @Override
-            public void cancel() {
-                subscribers.remove(subscriber);
-            }
-        });
+        EmissionQueue<T> subscription = new EmissionQueue<>(subscriber, bufferSize, n -> { }, subscriptions::remove);
+        subscriptions.add(subscription);
+        subscriber.onSubscribe(subscription);
     }
 
     // Functional method to transform the publisher
     public <R> FunctionalPublisher<R> map(Function<T, R> mapper) {
-        FunctionalPublisher<R> result = new FunctionalPublisher<>();
-        this.subscribe(new Subscriber<T>() {
-            @Override
-            public void onSubscribe(Subscription s) {
-                s.request(Long.MAX_VALUE);
-            }
-
-            @Override
-            public void onNext(T item) {
-                for (Subscriber<? super R> s : result.subscribers) {
-                    s.onNext(mapper.apply(item));
-                }
-            }
-
-            @Override
-            public void onError(Throwable t) {
-                for (Subscriber<? super R> s : result.subscribers) {
-                    s.onError(t);
-                }
-            }
-
-            @Override
-            public void onComplete() {
-                for (Subscriber<? super R> s : result.subscribers) {
-                    s.onComplete();
-                }
-            }
-        });
-        return result;
+        return FusedPublisher.ofMap(this, mapper);
     }
 
     // Method to filter items
     public FunctionalPublisher<T> filter(java.util.function.Predicate<T> predicate) {
-        FunctionalPublisher<T> result = new FunctionalPublisher<>();
-        this.subscribe(new Subscriber<T>() {
-            @Override
-            public void onSubscribe(Subscription s) {
-                s.request(Long.MAX_VALUE);
-            }
-
-            @Override
-            public void onNext(T item) {
-                if (predicate.test(item)) {
-                    for (Subscriber<? super T> s : result.subscribers) {
-                        s.onNext(item);
-                    }
-                }
-            }
-
-            @Override
-            public void onError(Throwable t) {
-                for (Subscriber<? super T> s : result.subscribers) {
-                    s.onError(t);
-                }
-            }
-
-            @Override
-            public void onComplete() {
-                for (Subscriber<? super T> s : result.subscribers) {
-                    s.onComplete();
-                }
-            }
-        });
-        return result;
+        return FusedPublisher.ofFilter(this, predicate);
     }
 
-    // Method to emit a value to all subscribers
-    public void emit(T value) {
-        for (Subscriber<? super T> subscriber : subscribers) {
-            subscriber.onNext(value);
-        }
+    // Bridge into the primitive double family so later stages avoid boxing
+    public FunctionalDoublePublisher mapToDouble(ToDoubleFunction<T> mapper) {
+        return new MapToDoublePublisher<>(this, mapper);
     }
 
-    // Method to signal completion to all subscribers
-    public void complete() {
-        for (Subscriber<? super T> subscriber : subscribers) {
-            subscriber.onComplete();
-        }
+    // Collect items into lists of count; the last list may be shorter
+    public FunctionalPublisher<List<T>> buffer(int count) {
+        return BufferPublisher.ofCount(this, count);
     }
 
-    // Method to signal error to all subscribers
-    public void error(Throwable throwable) {
-        for (Subscriber<? super T> subscriber : subscribers) {
-            subscriber.onError(throwable);
-        }
+    // Collect the items arriving in each period, ticked by the shared timer
+    public FunctionalPublisher<List<T>> buffer(Duration period) {
+        return BufferPublisher.ofDuration(this, period, TimerService.shared());
     }
-}
 
+    // Open a window of count items every skip items
+    public FunctionalPublisher<FunctionalPublisher<T>> window(int count, int skip) {
+        return WindowPublisher.ofCount(this, count, skip);
+    }
 
+    // Split the stream into consecutive windows of one period each, ticked by the shared timer
+    public FunctionalPublisher<FunctionalPublisher<T>> window(Duration period) {
+        return WindowPublisher.ofDuration(this, period, TimerService.shared());
+    }
 
+    // Deliver items to subscribers on a virtual thread per drain loop
+    public FunctionalPublisher<T> publishOn() {
+        return publishOn(DrainExecutors.virtualThreads());
+    }
 
+    // Deliver items to subscribers on the given executor, e.g. a platform thread pool
+    public FunctionalPublisher<T> publishOn(Executor executor) {
+        return publishOn(executor, DEFAULT_BUFFER_SIZE);
+    }
 
+    // prefetch bounds how many items are queued per subscriber ahead of delivery
+    public FunctionalPublisher<T> publishOn(Executor executor, int prefetch) {
+        return new PublishOnPublisher<>(this, executor, prefetch);
+    }
 
+    // Subscribe to this publisher on a virtual thread
+    public FunctionalPublisher<T> subscribeOn() {
+        return subscribeOn(DrainExecutors.virtualThreads());
+    }
 
+    // Subscribe to this publisher on the given executor
+    public FunctionalPublisher<T> subscribeOn(Executor executor) {
+        return new SubscribeOnPublisher<>(this, executor);
+    }
 
+    // Split the stream across one rail per available processor on the common fork-join pool
+    public ParallelPublisher<T> parallel() {
+        return parallel(Runtime.getRuntime().availableProcessors());
+    }
 
+    // Split the stream across the given number of rails on the common fork-join pool
+    public ParallelPublisher<T> parallel(int rails) {
+        return parallel(rails, ForkJoinPool.commonPool());
+    }
 
+    // Split the stream across rails whose map/filter stages run on the given executor
+    public ParallelPublisher<T> parallel(int rails, Executor executor) {
+        return parallel(rails, executor, ParallelPublisher.DEFAULT_PREFETCH);
+    }
 
+    // prefetch bounds how many items are queued per rail
+    public ParallelPublisher<T> parallel(int rails, Executor executor, int prefetch) {
+        return ParallelPublisher.from(this, rails, executor, prefetch);
+    }
+
+    // Whether consecutive map/filter stages were fused into a single stage
+    public boolean isFused() {
+        return false;
+    }
+
+    // Number of map/filter stages executed by this publisher's single subscriber hop
+    public int stageCount() {
+        return 0;
+    }
 
+    // Method to emit a value to all subscribers
+    public void emit(T value) {
+        subscriptions.forEach(EmissionQueue::offer, value);
+    }
 
+    // Method to signal completion to all subscribers
+    public void complete() {
+        subscriptions.forEach(this::terminate, null);
+    }
 
+    // Method to signal error to all subscribers
+    public void error(Throwable throwable) {
+        subscriptions.forEach(this::terminate, throwable);
+    }
 
+    // Deregistered first, so later emits skip it while it drains its queue
+    private void terminate(EmissionQueue<T> subscription, Throwable throwable) {
+        subscriptions.remove(subscription);
+        subscription.terminate(throwable);
+    }
+}
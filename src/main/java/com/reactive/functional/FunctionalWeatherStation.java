@@ -1,49 +1,248 @@
 package com.reactive.functional;
 
-import java.util.ArrayList;
-import java.util.List;
+import com.reactive.common.ChangeSuppression;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 // Weather station implementation with functional approach
+//
+// Observers live in a copy-on-write array walked by index, so an update
+// allocates no iterator or lambda. Temperature observers always get an
+// immutable Temperature. Event observers take a TemperatureEvent instead, and
+// in reusing mode they all share one mutable view refilled on each update; an
+// observer that keeps the event past accept() must call snapshot(). With only
+// event observers and a cheap clock, setTemperature() is allocation-free.
 class FunctionalWeatherStation {
-    private final List<Consumer<Temperature>> temperatureObservers = new ArrayList<>();
+    private static final Registration[] NO_OBSERVERS = new Registration[0];
+
+    private final Clock clock;
+    // Reusing mode only; null when every update gets its own Temperature
+    private final ReusableEvent reusableEvent;
+    private Registration[] temperatureObservers = NO_OBSERVERS;
+    private ChangeSuppression changeSuppression = ChangeSuppression.none();
+    private long suppressedCount;
     private double currentTemperature;
 
+    public FunctionalWeatherStation() {
+        this(Clock.wall(), false);
+    }
+
+    // reuseEvents: hand event observers one shared read-only view instead of a new Temperature per update
+    public FunctionalWeatherStation(Clock clock, boolean reuseEvents) {
+        this.clock = Objects.requireNonNull(clock, "clock");
+        this.reusableEvent = reuseEvents ? new ReusableEvent() : null;
+    }
+
     // Register observer using functional interface
     public void addTemperatureObserver(Consumer<Temperature> observer) {
-        temperatureObservers.add(observer);
+        // snapshot() is free for a Temperature and detaches a reused view
+        register(new Registration(observer, event -> observer.accept(event.snapshot())));
+    }
+
+    // Register an observer that may be handed the shared view in reusing mode
+    public void addTemperatureEventObserver(Consumer<TemperatureEvent> observer) {
+        register(new Registration(observer, observer));
     }
 
     // Remove observer
     public void removeTemperatureObserver(Consumer<Temperature> observer) {
-        temperatureObservers.remove(observer);
+        unregister(observer);
+    }
+
+    public void removeTemperatureEventObserver(Consumer<TemperatureEvent> observer) {
+        unregister(observer);
+    }
+
+    private void register(Registration registration) {
+        Registration[] current = temperatureObservers;
+        Registration[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = registration;
+        temperatureObservers = updated;
+    }
+
+    private void unregister(Object observer) {
+        Registration[] current = temperatureObservers;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].observer.equals(observer)) {
+                Registration[] updated = new Registration[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                temperatureObservers = updated;
+                return;
+            }
+        }
+    }
+
+    // Filter notifications per observer by dead-band, minimum interval and heartbeat
+    public void setChangeSuppression(ChangeSuppression changeSuppression) {
+        this.changeSuppression = Objects.requireNonNull(changeSuppression, "changeSuppression");
     }
 
     // Update temperature and notify observers
     public void setTemperature(double value) {
         currentTemperature = value;
-        Temperature temperature = new Temperature(value);
+        ChangeSuppression suppression = changeSuppression;
+        long now = suppression.isEnabled() ? System.nanoTime() : 0L;
+        // Created on first use, so a fully suppressed update allocates nothing
+        TemperatureEvent event = null;
 
         // Notify all observers
-        temperatureObservers.forEach(observer -> observer.accept(temperature));
+        Registration[] registrations = temperatureObservers;
+        for (int i = 0; i < registrations.length; i++) {
+            Registration registration = registrations[i];
+            if (suppression.isEnabled() && !registration.tracker.shouldNotify(suppression, value, now)) {
+                suppressedCount++;
+                continue;
+            }
+            if (event == null) {
+                event = reusableEvent != null
+                        ? reusableEvent.set(value, clock.now())
+                        : new Temperature(value, clock.now());
+            }
+            registration.dispatch.accept(event);
+        }
+    }
+
+    // Notifications held back by the change suppression policy, over all observers
+    public long getSuppressedCount() {
+        return suppressedCount;
+    }
+
+    // Notifications held back from one observer, or 0 if it is not registered
+    public long getSuppressedCount(Consumer<?> observer) {
+        for (Registration registration : temperatureObservers) {
+            if (registration.observer.equals(observer)) {
+                return registration.tracker.getSuppressedCount();
+            }
+        }
+        return 0L;
+    }
+
+    private static final class Registration {
+        // As registered, for removal and lookup
+        final Object observer;
+        final Consumer<TemperatureEvent> dispatch;
+        final ChangeSuppression.Tracker tracker = new ChangeSuppression.Tracker();
+
+        Registration(Object observer, Consumer<TemperatureEvent> dispatch) {
+            this.observer = observer;
+            this.dispatch = dispatch;
+        }
+    }
+
+    // Source of event timestamps
+    @FunctionalInterface
+    public interface Clock {
+        long now();
+
+        // System.currentTimeMillis(), as the station always used
+        static Clock wall() {
+            return System::currentTimeMillis;
+        }
+
+        // Wall-clock millis refreshed by the shared timer about once a
+        // millisecond; reading it is a single volatile load
+        static Clock coarse() {
+            return CoarseClock.INSTANCE;
+        }
+
+        // System.nanoTime(): only meaningful as a difference, never as a date
+        static Clock monotonic() {
+            return System::nanoTime;
+        }
+    }
+
+    private static final class CoarseClock implements Clock, Runnable {
+        static final CoarseClock INSTANCE = new CoarseClock();
+
+        private volatile long millis = System.currentTimeMillis();
+
+        private CoarseClock() {
+            TimerService.shared().schedule(this, 1, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public long now() {
+            return millis;
+        }
+
+        @Override
+        public void run() {
+            millis = System.currentTimeMillis();
+            TimerService.shared().schedule(this, 1, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // A temperature reading as seen by an event observer. It may be the
+    // station's reused view, valid only until accept() returns.
+    public interface TemperatureEvent {
+        double getValue();
+
+        long getTimestamp();
+
+        // An immutable copy that stays valid after accept() returns
+        Temperature snapshot();
     }
 
     // Temperature value object
-    public static class Temperature {
+    public static final class Temperature implements TemperatureEvent {
         private final double value;
         private final long timestamp;
 
         public Temperature(double value) {
+            this(value, System.currentTimeMillis());
+        }
+
+        public Temperature(double value, long timestamp) {
             this.value = value;
-            this.timestamp = System.currentTimeMillis();
+            this.timestamp = timestamp;
         }
 
+        @Override
         public double getValue() {
             return value;
         }
 
+        @Override
         public long getTimestamp() {
             return timestamp;
         }
+
+        // Already immutable
+        @Override
+        public Temperature snapshot() {
+            return this;
+        }
+    }
+
+    // The view handed out in reusing mode. Only valid during accept(); the
+    // next update overwrites it.
+    private static final class ReusableEvent implements TemperatureEvent {
+        private double value;
+        private long timestamp;
+
+        TemperatureEvent set(double value, long timestamp) {
+            this.value = value;
+            this.timestamp = timestamp;
+            return this;
+        }
+
+        @Override
+        public double getValue() {
+            return value;
+        }
+
+        @Override
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        @Override
+        public Temperature snapshot() {
+            return new Temperature(value, timestamp);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,141 @@
+package com.reactive.functional;
+
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleUnaryOperator;
+
+// Primitive counterpart of FusedPublisher: consecutive mapToDouble/filter
+// stages are composed at assembly time and run in one subscriber hop
+class FusedDoublePublisher extends DoubleOperatorPublisher {
+    private final DoublePublisher source;
+    private final Stage stage;
+    private final int stageCount;
+
+    // Writes the result to out[0], or returns false when a filter stage rejected the value
+    private interface Stage {
+        boolean apply(double value, double[] out);
+    }
+
+    private FusedDoublePublisher(DoublePublisher source, Stage stage, int stageCount) {
+        this.source = source;
+        this.stage = stage;
+        this.stageCount = stageCount;
+    }
+
+    static FusedDoublePublisher ofMap(DoublePublisher source, DoubleUnaryOperator mapper) {
+        return new FusedDoublePublisher(source, (value, out) -> {
+            out[0] = mapper.applyAsDouble(value);
+            return true;
+        }, 1);
+    }
+
+    static FusedDoublePublisher ofFilter(DoublePublisher source, DoublePredicate predicate) {
+        return new FusedDoublePublisher(source, (value, out) -> {
+            out[0] = value;
+            return predicate.test(value);
+        }, 1);
+    }
+
+    @Override
+    public FunctionalDoublePublisher mapToDouble(DoubleUnaryOperator mapper) {
+        Stage previous = stage;
+        return new FusedDoublePublisher(source, (value, out) -> {
+            if (!previous.apply(value, out)) {
+                return false;
+            }
+            out[0] = mapper.applyAsDouble(out[0]);
+            return true;
+        }, stageCount + 1);
+    }
+
+    @Override
+    public FunctionalDoublePublisher filter(DoublePredicate predicate) {
+        Stage previous = stage;
+        return new FusedDoublePublisher(source,
+                (value, out) -> previous.apply(value, out) && predicate.test(out[0]),
+                stageCount + 1);
+    }
+
+    @Override
+    public boolean isFused() {
+        return stageCount > 1;
+    }
+
+    @Override
+    public int stageCount() {
+        return stageCount;
+    }
+
+    @Override
+    public void subscribe(DoubleSubscriber subscriber) {
+        source.subscribe(new FusedSubscriber(subscriber, stage));
+    }
+
+    private static class FusedSubscriber implements DoubleSubscriber, Subscription {
+        private final DoubleSubscriber downstream;
+        private final Stage stage;
+        // Scratch slot for the stage result, reused for every item
+        private final double[] out = new double[1];
+        private Subscription upstream;
+        private boolean done;
+
+        FusedSubscriber(DoubleSubscriber downstream, Stage stage) {
+            this.downstream = downstream;
+            this.stage = stage;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.upstream = subscription;
+            downstream.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(double item) {
+            if (done) {
+                return;
+            }
+            boolean pass;
+            try {
+                pass = stage.apply(item, out);
+            } catch (RuntimeException e) {
+                upstream.cancel();
+                onError(e);
+                return;
+            }
+            if (pass) {
+                downstream.onNext(out[0]);
+            } else {
+                // A rejected item used up one unit of demand, so replenish it
+                upstream.request(1);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            if (done) {
+                return;
+            }
+            done = true;
+            downstream.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            downstream.onComplete();
+        }
+
+        @Override
+        public void request(long n) {
+            upstream.request(n);
+        }
+
+        @Override
+        public void cancel() {
+            upstream.cancel();
+        }
+    }
+}
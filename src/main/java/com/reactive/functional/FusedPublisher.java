@@ -0,0 +1,134 @@
+package com.reactive.functional;
+
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+// Publisher for a run of consecutive map/filter stages. Calling map() or
+// filter() on a FusedPublisher composes the new stage into the existing
+// function at assembly time instead of adding another subscriber hop, so a
+// chain of any length costs a single onNext per item.
+class FusedPublisher<T, R> extends OperatorPublisher<T, R> {
+    // Returns the transformed item, or null when a filter stage rejected it
+    private final Function<T, R> stage;
+    private final int stageCount;
+
+    private FusedPublisher(Publisher<T> source, Function<T, R> stage, int stageCount) {
+        super(source);
+        this.stage = stage;
+        this.stageCount = stageCount;
+    }
+
+    static <T, R> FusedPublisher<T, R> ofMap(Publisher<T> source, Function<T, R> mapper) {
+        return new FusedPublisher<>(source, item -> applyMapper(mapper, item), 1);
+    }
+
+    static <T> FusedPublisher<T, T> ofFilter(Publisher<T> source, Predicate<T> predicate) {
+        return new FusedPublisher<>(source, item -> predicate.test(item) ? item : null, 1);
+    }
+
+    @Override
+    public <V> FunctionalPublisher<V> map(Function<R, V> mapper) {
+        Function<T, R> previous = stage;
+        return new FusedPublisher<>(source, item -> {
+            R value = previous.apply(item);
+            return value == null ? null : applyMapper(mapper, value);
+        }, stageCount + 1);
+    }
+
+    @Override
+    public FunctionalPublisher<R> filter(Predicate<R> predicate) {
+        Function<T, R> previous = stage;
+        return new FusedPublisher<>(source, item -> {
+            R value = previous.apply(item);
+            return value != null && predicate.test(value) ? value : null;
+        }, stageCount + 1);
+    }
+
+    @Override
+    public boolean isFused() {
+        return stageCount > 1;
+    }
+
+    @Override
+    public int stageCount() {
+        return stageCount;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super R> subscriber) {
+        source.subscribe(new FusedSubscriber<>(subscriber, stage));
+    }
+
+    private static <T, R> R applyMapper(Function<T, R> mapper, T item) {
+        return Objects.requireNonNull(mapper.apply(item), "The mapper returned a null value");
+    }
+
+    private static class FusedSubscriber<T, R> implements Subscriber<T>, Subscription {
+        private final Subscriber<? super R> downstream;
+        private final Function<T, R> stage;
+        private Subscription upstream;
+        private boolean done;
+
+        FusedSubscriber(Subscriber<? super R> downstream, Function<T, R> stage) {
+            this.downstream = downstream;
+            this.stage = stage;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.upstream = subscription;
+            downstream.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (done) {
+                return;
+            }
+            R result;
+            try {
+                result = stage.apply(item);
+            } catch (RuntimeException e) {
+                upstream.cancel();
+                onError(e);
+                return;
+            }
+            if (result != null) {
+                downstream.onNext(result);
+            } else {
+                // A rejected item used up one unit of demand, so replenish it
+                upstream.request(1);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            if (done) {
+                return;
+            }
+            done = true;
+            downstream.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            downstream.onComplete();
+        }
+
+        // Downstream demand maps one-to-one onto upstream demand
+        @Override
+        public void request(long n) {
+            upstream.request(n);
+        }
+
+        @Override
+        public void cancel() {
+            upstream.cancel();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.reactive.functional;
+
+import java.util.function.ToDoubleFunction;
+
+// Bridge from a boxed publisher into the primitive double family
+class MapToDoublePublisher<T> extends DoubleOperatorPublisher {
+    private final Publisher<T> source;
+    private final ToDoubleFunction<T> mapper;
+
+    MapToDoublePublisher(Publisher<T> source, ToDoubleFunction<T> mapper) {
+        this.source = source;
+        this.mapper = mapper;
+    }
+
+    @Override
+    public void subscribe(DoubleSubscriber subscriber) {
+        source.subscribe(new MapToDoubleSubscriber<>(subscriber, mapper));
+    }
+
+    private static class MapToDoubleSubscriber<T> implements Subscriber<T>, Subscription {
+        private final DoubleSubscriber downstream;
+        private final ToDoubleFunction<T> mapper;
+        private Subscription upstream;
+        private boolean done;
+
+        MapToDoubleSubscriber(DoubleSubscriber downstream, ToDoubleFunction<T> mapper) {
+            this.downstream = downstream;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.upstream = subscription;
+            downstream.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (done) {
+                return;
+            }
+            double result;
+            try {
+                result = mapper.applyAsDouble(item);
+            } catch (RuntimeException e) {
+                upstream.cancel();
+                onError(e);
+                return;
+            }
+            downstream.onNext(result);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            if (done) {
+                return;
+            }
+            done = true;
+            downstream.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            downstream.onComplete();
+        }
+
+        @Override
+        public void request(long n) {
+            upstream.request(n);
+        }
+
+        @Override
+        public void cancel() {
+            upstream.cancel();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.reactive.functional;
+
+// Base class for publishers derived from an upstream publisher by an operator.
+// Each downstream subscriber gets its own operator subscriber chained to the
+// upstream, so demand flows straight through to the source. The result is
+// still a FunctionalPublisher so operators chain, but it is read-only:
+// emit(), complete() and error() throw UnsupportedOperationException.
+abstract class OperatorPublisher<T, R> extends FunctionalPublisher<R> {
+    protected final Publisher<T> source;
+
+    OperatorPublisher(Publisher<T> source) {
+        super(DEFAULT_BUFFER_SIZE, false);
+        this.source = source;
+    }
+
+    @Override
+    public abstract void subscribe(Subscriber<? super R> subscriber);
+
+    // Operator publishers are driven by their upstream, not by direct emission
+    @Override
+    public final void emit(R value) {
+        throw new UnsupportedOperationException("Emit on the source publisher instead");
+    }
+
+    @Override
+    public final void complete() {
+        throw new UnsupportedOperationException("Complete the source publisher instead");
+    }
+
+    @Override
+    public final void error(Throwable throwable) {
+        throw new UnsupportedOperationException("Signal errors on the source publisher instead");
+    }
+}
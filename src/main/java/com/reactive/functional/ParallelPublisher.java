@@ -0,0 +1,391 @@
+package com.reactive.functional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+// A stream split across N rails. map() and filter() stages are fused as in
+// FusedPublisher and run concurrently on the rails' executor; sequential()
+// and ordered() merge the rails back into a single FunctionalPublisher.
+//
+// Demand is bounded per subscriber: at most rails * prefetch items are taken
+// from upstream and not yet delivered or filtered out. Each rail has a queue
+// of prefetch slots, and an item is handed to the next rail with free space,
+// so a slow item on one rail does not hold back the others.
+public class ParallelPublisher<T> {
+    static final int DEFAULT_PREFETCH = 64;
+    private static final Object FILTERED = new Object();
+
+    private final Publisher<Object> source;
+    // Returns the transformed item, or null when a filter stage rejected it
+    private final Function<Object, T> stage;
+    private final int rails;
+    private final Executor executor;
+    private final int prefetch;
+
+    private ParallelPublisher(Publisher<Object> source, Function<Object, T> stage,
+                              int rails, Executor executor, int prefetch) {
+        this.source = source;
+        this.stage = stage;
+        this.rails = rails;
+        this.executor = executor;
+        this.prefetch = prefetch;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> ParallelPublisher<T> from(Publisher<T> source, int rails, Executor executor, int prefetch) {
+        if (rails <= 0 || prefetch <= 0) {
+            throw new IllegalArgumentException("Rails and prefetch must be positive");
+        }
+        return new ParallelPublisher<>((Publisher<Object>) source, item -> (T) item, rails, executor, prefetch);
+    }
+
+    // Transform items on their rail
+    public <R> ParallelPublisher<R> map(Function<T, R> mapper) {
+        Function<Object, T> previous = stage;
+        return new ParallelPublisher<>(source, item -> {
+            T value = previous.apply(item);
+            return value == null ? null : Objects.requireNonNull(mapper.apply(value), "The mapper returned a null value");
+        }, rails, executor, prefetch);
+    }
+
+    // Drop items on their rail
+    public ParallelPublisher<T> filter(Predicate<T> predicate) {
+        Function<Object, T> previous = stage;
+        return new ParallelPublisher<>(source, item -> {
+            T value = previous.apply(item);
+            return value != null && predicate.test(value) ? value : null;
+        }, rails, executor, prefetch);
+    }
+
+    public int parallelism() {
+        return rails;
+    }
+
+    // Merge the rails, emitting results as soon as any rail produces them
+    public FunctionalPublisher<T> sequential() {
+        return new MergePublisher<>(this, false);
+    }
+
+    // Merge the rails, restoring upstream order with a bounded reorder buffer
+    public FunctionalPublisher<T> ordered() {
+        return new MergePublisher<>(this, true);
+    }
+
+    private static class MergePublisher<T> extends OperatorPublisher<Object, T> {
+        private final ParallelPublisher<T> parallel;
+        private final boolean ordered;
+
+        MergePublisher(ParallelPublisher<T> parallel, boolean ordered) {
+            super(parallel.source);
+            this.parallel = parallel;
+            this.ordered = ordered;
+        }
+
+        @Override
+        public void subscribe(Subscriber<? super T> subscriber) {
+            source.subscribe(new ParallelSubscriber<>(subscriber, parallel, ordered));
+        }
+    }
+
+    // An upstream item together with its arrival sequence number
+    private static final class Slot {
+        final long seq;
+        final Object value;
+
+        Slot(long seq, Object value) {
+            this.seq = seq;
+            this.value = value;
+        }
+    }
+
+    private static class ParallelSubscriber<T> implements Subscriber<Object>, Subscription {
+        private final Subscriber<? super T> downstream;
+        private final Function<Object, T> stage;
+        private final Executor executor;
+        private final boolean ordered;
+        private final List<Rail> rails;
+        private final int window;
+        private final int releaseBatch;
+
+        // Unordered results, in completion order
+        private final Queue<Object> results = new ConcurrentLinkedQueue<>();
+        // Ordered results indexed by seq % window; FILTERED marks rejected items
+        private final AtomicReferenceArray<Object> reorder;
+
+        private final AtomicLong requested = new AtomicLong(0);
+        private final AtomicInteger wip = new AtomicInteger(0);
+        private final AtomicLong processed = new AtomicLong(0);
+        private final AtomicInteger pendingRelease = new AtomicInteger(0);
+        private Subscription upstream;
+        private volatile long dispatched;
+        private volatile boolean done;
+        private volatile boolean cancelled;
+        private volatile Throwable error;
+        // Only touched by the upstream thread
+        private int nextRail;
+        // Only touched by the merge drainer
+        private long emitted;
+
+        ParallelSubscriber(Subscriber<? super T> downstream, ParallelPublisher<T> parallel, boolean ordered) {
+            this.downstream = downstream;
+            this.stage = parallel.stage;
+            this.executor = parallel.executor;
+            this.ordered = ordered;
+            this.window = parallel.rails * parallel.prefetch;
+            this.releaseBatch = Math.max(1, parallel.prefetch >> 1);
+            this.reorder = ordered ? new AtomicReferenceArray<>(window) : null;
+            this.rails = new ArrayList<>(parallel.rails);
+            for (int i = 0; i < parallel.rails; i++) {
+                rails.add(new Rail(parallel.prefetch));
+            }
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.upstream = subscription;
+            downstream.onSubscribe(this);
+            subscription.request(window);
+        }
+
+        // Called serially by upstream: hand the item to the next rail with room
+        @Override
+        public void onNext(Object item) {
+            if (done || cancelled) {
+                return;
+            }
+            Slot slot = new Slot(dispatched, item);
+            for (int attempt = 0; attempt < rails.size(); attempt++) {
+                Rail rail = rails.get(nextRail);
+                nextRail = nextRail + 1 == rails.size() ? 0 : nextRail + 1;
+                if (rail.queue.offer(slot)) {
+                    dispatched = slot.seq + 1;
+                    rail.schedule();
+                    return;
+                }
+            }
+            upstream.cancel();
+            onError(new IllegalStateException("Upstream emitted more than the " + window + " items requested"));
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            if (done) {
+                return;
+            }
+            error = throwable;
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                upstream.cancel();
+                onError(new IllegalArgumentException("Requested amount must be positive"));
+                return;
+            }
+            Demand.add(requested, n);
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                upstream.cancel();
+            }
+        }
+
+        // Called by rail workers once an item left the stage
+        private void onRailResult(long seq, T result) {
+            if (ordered) {
+                reorder.lazySet((int) (seq % window), result != null ? result : FILTERED);
+            } else if (result != null) {
+                results.offer(result);
+            } else {
+                release(1);
+            }
+            processed.incrementAndGet();
+            drain();
+        }
+
+        private void onRailError(Throwable throwable) {
+            upstream.cancel();
+            onError(throwable);
+        }
+
+        // Items that left the system free upstream slots; request them back in batches
+        private void release(int n) {
+            if (pendingRelease.addAndGet(n) >= releaseBatch) {
+                int amount = pendingRelease.getAndSet(0);
+                if (amount > 0 && !cancelled) {
+                    upstream.request(amount);
+                }
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            for (;;) {
+                long r = requested.get();
+                long e = 0L;
+                int freed = 0;
+
+                while (e != r) {
+                    if (checkTerminated()) {
+                        return;
+                    }
+                    Object value;
+                    if (ordered) {
+                        int index = (int) (emitted % window);
+                        value = reorder.get(index);
+                        if (value == null) {
+                            break;
+                        }
+                        reorder.lazySet(index, null);
+                        emitted++;
+                        if (value == FILTERED) {
+                            freed++;
+                            continue;
+                        }
+                    } else {
+                        value = results.poll();
+                        if (value == null) {
+                            break;
+                        }
+                    }
+                    downstream.onNext((T) value);
+                    freed++;
+                    e++;
+                }
+
+                // Rejected items at the head of the reorder buffer need no demand
+                while (ordered && !cancelled) {
+                    int index = (int) (emitted % window);
+                    if (reorder.get(index) != FILTERED) {
+                        break;
+                    }
+                    reorder.lazySet(index, null);
+                    emitted++;
+                    freed++;
+                }
+
+                if (freed != 0) {
+                    release(freed);
+                }
+
+                if (checkTerminated()) {
+                    return;
+                }
+
+                if (e != 0L) {
+                    Demand.produced(requested, e);
+                }
+
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        private boolean checkTerminated() {
+            if (cancelled) {
+                results.clear();
+                return true;
+            }
+            if (done) {
+                Throwable t = error;
+                if (t != null) {
+                    cancelled = true;
+                    results.clear();
+                    downstream.onError(t);
+                    return true;
+                }
+                // Read processed first: a rail publishes its result before counting it
+                boolean allProcessed = processed.get() == dispatched;
+                boolean empty = ordered ? emitted == dispatched : results.isEmpty();
+                if (allProcessed && empty) {
+                    cancelled = true;
+                    downstream.onComplete();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // One rail: a bounded input queue drained by a task on the executor
+        private final class Rail implements Runnable {
+            private final Queue<Slot> queue;
+            private final AtomicInteger railWip = new AtomicInteger(0);
+
+            Rail(int prefetch) {
+                this.queue = new ArrayBlockingQueue<>(prefetch);
+            }
+
+            void schedule() {
+                if (railWip.getAndIncrement() != 0) {
+                    return;
+                }
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    onRailError(e);
+                }
+            }
+
+            @Override
+            public void run() {
+                int missed = 1;
+                for (;;) {
+                    Slot slot;
+                    while ((slot = queue.poll()) != null) {
+                        if (cancelled) {
+                            queue.clear();
+                            return;
+                        }
+                        T result;
+                        try {
+                            result = stage.apply(slot.value);
+                        } catch (RuntimeException e) {
+                            queue.clear();
+                            onRailError(e);
+                            return;
+                        }
+                        onRailResult(slot.seq, result);
+                    }
+
+                    missed = railWip.addAndGet(-missed);
+                    if (missed == 0) {
+                        break;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.reactive.functional;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Moves delivery to downstream subscribers onto an executor. Upstream items
+// land in a bounded prefetch queue per subscriber and the producer returns
+// immediately; a drain task on the executor hands them to onNext. Upstream
+// demand is replenished in batches as the queue empties, so a slow subscriber
+// slows only its own upstream requests, never the producer's thread.
+class PublishOnPublisher<T> extends OperatorPublisher<T, T> {
+    private final Executor executor;
+    private final int prefetch;
+
+    PublishOnPublisher(Publisher<T> source, Executor executor, int prefetch) {
+        super(source);
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("Prefetch must be positive");
+        }
+        this.executor = executor;
+        this.prefetch = prefetch;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber) {
+        source.subscribe(new PublishOnSubscriber<>(subscriber, executor, prefetch));
+    }
+
+    private static class PublishOnSubscriber<T> implements Subscriber<T>, Subscription, Runnable {
+        private final Subscriber<? super T> downstream;
+        private final Executor executor;
+        private final int prefetch;
+        // Re-request from upstream once this many prefetched items were consumed
+        private final int limit;
+        private final Queue<T> queue;
+        private final AtomicLong requested = new AtomicLong(0);
+        private final AtomicInteger wip = new AtomicInteger(0);
+        private Subscription upstream;
+        private volatile boolean cancelled;
+        private volatile boolean done;
+        private volatile Throwable error;
+        // Only touched by the drain task
+        private int consumed;
+
+        PublishOnSubscriber(Subscriber<? super T> downstream, Executor executor, int prefetch) {
+            this.downstream = downstream;
+            this.executor = executor;
+            this.prefetch = prefetch;
+            this.limit = prefetch - (prefetch >> 2);
+            this.queue = new ArrayBlockingQueue<>(prefetch);
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.upstream = subscription;
+            downstream.onSubscribe(this);
+            subscription.request(prefetch);
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (done) {
+                return;
+            }
+            if (!queue.offer(item)) {
+                upstream.cancel();
+                onError(new IllegalStateException("Upstream emitted more than the " + prefetch + " items requested"));
+                return;
+            }
+            schedule();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            if (done) {
+                return;
+            }
+            error = throwable;
+            done = true;
+            schedule();
+        }
+
+        @Override
+        public void onComplete() {
+            if (done) {
+                return;
+            }
+            done = true;
+            schedule();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                upstream.cancel();
+                onError(new IllegalArgumentException("Requested amount must be positive"));
+                return;
+            }
+            Demand.add(requested, n);
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            upstream.cancel();
+            if (wip.getAndIncrement() == 0) {
+                queue.clear();
+            }
+        }
+
+        // Start a drain task unless one is already running or queued
+        private void schedule() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                queue.clear();
+                cancelled = true;
+                upstream.cancel();
+                downstream.onError(e);
+            }
+        }
+
+        // Drain loop, run on the executor
+        @Override
+        public void run() {
+            int missed = 1;
+            for (;;) {
+                long r = requested.get();
+                long e = 0L;
+
+                while (e != r) {
+                    if (checkTerminated()) {
+                        return;
+                    }
+                    T item = queue.poll();
+                    if (item == null) {
+                        break;
+                    }
+                    downstream.onNext(item);
+                    e++;
+                    if (++consumed == limit) {
+                        consumed = 0;
+                        upstream.request(limit);
+                    }
+                }
+
+                if (checkTerminated()) {
+                    return;
+                }
+
+                if (e != 0L) {
+                    Demand.produced(requested, e);
+                }
+
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
+            }
+        }
+
+        private boolean checkTerminated() {
+            if (cancelled) {
+                queue.clear();
+                return true;
+            }
+            if (done) {
+                Throwable t = error;
+                if (t != null) {
+                    cancelled = true;
+                    queue.clear();
+                    downstream.onError(t);
+                    return true;
+                }
+                if (queue.isEmpty()) {
+                    cancelled = true;
+                    downstream.onComplete();
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
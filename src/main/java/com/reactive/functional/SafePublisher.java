@@ -1,27 +1,113 @@
 package com.reactive.functional;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
-// Safe publisher with weak references
+// Safe publisher with weak references. The publisher only holds its
+// subscriptions weakly, so a subscriber that is dropped without calling
+// cancel() is garbage collected together with its subscription. Collected
+// references are enqueued on a ReferenceQueue and purged on the publish path
+// without scanning for dead entries: publish() polls the queue, which is
+// O(1) when it is empty. The references live in a SubscriberRegistry, so
+// publishing iterates a stable array without locking, and each membership
+// change (subscribe, cancel or a purged reference) copies that array once,
+// which is O(n) in the number of subscribers.
+//
+// publish() may be called from several threads at once. Each item first
+// claims a unit of demand atomically, and signals to one subscriber are
+// delivered under its subscription's monitor, so they never overlap.
+//
+// Only the Subscription handed to onSubscribe keeps a subscriber registered:
+// a subscriber that does not hold on to it is unsubscribed, silently, at the
+// next garbage collection, even if the subscriber itself is still in use.
 class SafePublisher<T> implements Publisher<T> {
-    private final List<WeakReference<Subscription>> subscriptions = new ArrayList<>();
+    private final ReferenceQueue<Subscription> referenceQueue = new ReferenceQueue<>();
+    private final SubscriberRegistry<SubscriptionRef> subscriptions = new SubscriberRegistry<>();
+    private final LongAdder droppedCount = new LongAdder();
 
+    // The subscriber must keep a strong reference to the Subscription it is
+    // given for as long as it wants items; see the class comment
     @Override
     public void subscribe(Subscriber<? super T> subscriber) {
         SubscriptionImpl subscription = new SubscriptionImpl(subscriber);
-        subscriptions.add(new java.lang.ref.WeakReference<>(subscription));
+        SubscriptionRef ref = new SubscriptionRef(subscription, referenceQueue);
+        subscription.ref = ref;
+        purge();
+        subscriptions.add(ref);
         subscriber.onSubscribe(subscription);
     }
 
+    // Deliver the item to every live subscriber that has outstanding demand
+    public void publish(T item) {
+        purge();
+        subscriptions.forEach(this::emit, item);
+    }
+
+    public void complete() {
+        subscriptions.forEach(this::terminate, null);
+    }
+
+    public void error(Throwable throwable) {
+        subscriptions.forEach(this::terminate, throwable);
+    }
+
+    // Remove garbage-collected subscriptions; also done automatically on publish
     public void cleanup() {
-        // Remove garbage-collected subscriptions
-        subscriptions.removeIf(ref -> ref.get() == null);
+        purge();
+    }
+
+    // Number of registered subscriptions not yet cancelled or purged
+    public int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    // Items a live subscriber missed because it had no outstanding demand
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    private void emit(SubscriptionRef ref, T item) {
+        SubscriptionImpl subscription = resolve(ref);
+        if (subscription != null) {
+            subscription.emit(item);
+        }
+    }
+
+    private void terminate(SubscriptionRef ref, Throwable throwable) {
+        SubscriptionImpl subscription = resolve(ref);
+        if (subscription != null) {
+            subscription.terminate(throwable);
+        }
+    }
+
+    // Each collected reference costs one registry removal
+    private void purge() {
+        Reference<? extends Subscription> ref;
+        while ((ref = referenceQueue.poll()) != null) {
+            subscriptions.remove((SubscriptionRef) ref);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private SubscriptionImpl resolve(SubscriptionRef ref) {
+        return (SubscriptionImpl) ref.get();
+    }
+
+    private static final class SubscriptionRef extends WeakReference<Subscription> {
+        SubscriptionRef(Subscription referent, ReferenceQueue<Subscription> queue) {
+            super(referent, queue);
+        }
     }
 
     private class SubscriptionImpl implements Subscription {
         private final Subscriber<? super T> subscriber;
+        private final AtomicLong requested = new AtomicLong(0);
+        private final AtomicBoolean cancelled = new AtomicBoolean(false);
+        private SubscriptionRef ref;
 
         public SubscriptionImpl(Subscriber<? super T> subscriber) {
             this.subscriber = subscriber;
@@ -29,12 +115,49 @@ class SafePublisher<T> implements Publisher<T> {
 
         @Override
         public void request(long n) {
-            // Implementation
+            if (n <= 0) {
+                terminate(new IllegalArgumentException("Requested amount must be positive"));
+                return;
+            }
+
+            Demand.add(requested, n);
         }
 
         @Override
         public void cancel() {
-            // Implementation
+            if (cancelled.compareAndSet(false, true)) {
+                subscriptions.remove(ref);
+                ref.clear();
+            }
+        }
+
+        void emit(T item) {
+            if (cancelled.get()) {
+                return;
+            }
+            if (!Demand.claim(requested)) {
+                droppedCount.increment();
+                return;
+            }
+            synchronized (this) {
+                // Re-checked so nothing follows a terminal signal
+                if (!cancelled.get()) {
+                    subscriber.onNext(item);
+                }
+            }
+        }
+
+        void terminate(Throwable throwable) {
+            synchronized (this) {
+                if (!cancelled.get()) {
+                    cancel();
+                    if (throwable != null) {
+                        subscriber.onError(throwable);
+                    } else {
+                        subscriber.onComplete();
+                    }
+                }
+            }
         }
     }
-}
\ No newline at end of file
+}
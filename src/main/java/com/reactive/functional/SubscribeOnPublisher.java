@@ -0,0 +1,21 @@
+package com.reactive.functional;
+
+import java.util.concurrent.Executor;
+
+// Performs the upstream subscribe call on an executor, so any work the source
+// does when subscribed to (registration, replaying, opening resources) stays
+// off the caller's thread. Requests and cancellation go straight upstream;
+// every Subscription in this package accepts them from any thread.
+class SubscribeOnPublisher<T> extends OperatorPublisher<T, T> {
+    private final Executor executor;
+
+    SubscribeOnPublisher(Publisher<T> source, Executor executor) {
+        super(source);
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber) {
+        executor.execute(() -> source.subscribe(subscriber));
+    }
+}
@@ -0,0 +1,88 @@
+package com.reactive.functional;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.ObjDoubleConsumer;
+
+// Lock-free copy-on-write set of subscriptions. subscribe/cancel swap in a
+// new array with a CAS, while emitters iterate whatever array they read,
+// which never changes underneath them. Emission therefore needs no lock and
+// no iterator, and a subscriber cancelling from inside onNext is safe.
+final class SubscriberRegistry<E> {
+    private static final Object[] EMPTY = new Object[0];
+
+    private final AtomicReference<Object[]> array = new AtomicReference<>(EMPTY);
+
+    void add(E element) {
+        for (;;) {
+            Object[] current = array.get();
+            int length = current.length;
+            Object[] next = new Object[length + 1];
+            System.arraycopy(current, 0, next, 0, length);
+            next[length] = element;
+            if (array.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    // Identity-based removal; returns false if the element was not registered
+    boolean remove(E element) {
+        for (;;) {
+            Object[] current = array.get();
+            int length = current.length;
+            int index = -1;
+            for (int i = 0; i < length; i++) {
+                if (current[i] == element) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0) {
+                return false;
+            }
+
+            Object[] next;
+            if (length == 1) {
+                next = EMPTY;
+            } else {
+                next = new Object[length - 1];
+                System.arraycopy(current, 0, next, 0, index);
+                System.arraycopy(current, index + 1, next, index, length - index - 1);
+            }
+            if (array.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    // Visits the subscriptions registered when the call started; changes made
+    // meanwhile, including from inside the action, take effect on the next call
+    @SuppressWarnings("unchecked")
+    void forEach(Consumer<? super E> action) {
+        for (Object element : array.get()) {
+            action.accept((E) element);
+        }
+    }
+
+    // Same, passing an argument along so emit paths can use a non-capturing
+    // method reference instead of allocating a lambda per item
+    @SuppressWarnings("unchecked")
+    <A> void forEach(BiConsumer<? super E, ? super A> action, A argument) {
+        for (Object element : array.get()) {
+            action.accept((E) element, argument);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    void forEach(ObjDoubleConsumer<? super E> action, double argument) {
+        for (Object element : array.get()) {
+            action.accept((E) element, argument);
+        }
+    }
+
+    int size() {
+        return array.get().length;
+    }
+}
@@ -33,5 +33,11 @@ class TemperatureProcessor {
 
         return result;
     }
-}
 
+    // Primitive variant of processTemperatures: readings stay unboxed end to end
+    public FunctionalDoublePublisher processTemperatures(FunctionalDoublePublisher source, double threshold) {
+        return source
+                .mapToDouble(celsius -> celsius * 9 / 5 + 32)
+                .filter(fahrenheit -> fahrenheit > threshold);
+    }
+}
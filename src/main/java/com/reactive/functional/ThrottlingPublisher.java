@@ -1,23 +1,88 @@
 package com.reactive.functional;
 
 import java.time.Duration;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
-// Throttling publisher implementation
+// Throttling publisher implementation based on a token bucket. One token is
+// added every refill interval, up to burstSize; publishing an item spends a
+// token. Items arriving while the bucket is empty wait in a bounded pending
+// queue (or a single "latest" slot). At most one drain task per publisher is
+// scheduled on a shared TimerService, and only while items are pending, so a
+// burst never puts more than one task into the timer and idle publishers cost
+// nothing. The drain task only moves items into subscriber queues; delivery
+// is handed to an executor, so a slow subscriber never holds up the timer
+// thread that other publishers share. Released items wait in a per-subscriber
+// queue that is also bounded by maxPending; a subscriber that falls that far
+// behind loses the overflow, which is counted as dropped like the rest.
 class ThrottlingPublisher<T> implements Publisher<T> {
-    private final Duration minInterval;
-    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-    private final List<SubscriptionImpl> subscriptions = new ArrayList<>();
-    private volatile long lastEmitTime = 0;
+    static final int DEFAULT_MAX_PENDING = 256;
+
+    // How items that arrive while the bucket is empty are held
+    enum Mode {
+        // Keep up to maxPending items in arrival order, dropping new ones beyond that
+        QUEUE,
+        // Keep only the most recent item; older pending items are replaced
+        LATEST
+    }
+
+    private final long refillIntervalNanos;
+    private final int burstSize;
+    private final int maxPending;
+    private final Mode mode;
+    private final TimerService timer;
+    private final Executor deliveryExecutor;
+    private final SubscriberRegistry<SubscriptionImpl> subscriptions = new SubscriberRegistry<>();
+    private final LongAdder droppedCount = new LongAdder();
+
+    // Bucket and pending state, guarded by this lock
+    private final Object lock = new Object();
+    private final ArrayDeque<T> pending = new ArrayDeque<>();
+    private T latest;
+    private long tokens;
+    private long lastRefillNanos;
+    private TimerService.Timeout drainTimeout;
+    private boolean shutdown;
 
     public ThrottlingPublisher(Duration minInterval) {
-        this.minInterval = minInterval;
+        this(minInterval, 1, DEFAULT_MAX_PENDING, Mode.QUEUE);
+    }
+
+    // Emits at most one item per refillInterval on average, allowing bursts of burstSize
+    public ThrottlingPublisher(Duration refillInterval, int burstSize, int maxPending, Mode mode) {
+        this(refillInterval, burstSize, maxPending, mode, TimerService.shared());
+    }
+
+    public ThrottlingPublisher(Duration refillInterval, int burstSize, int maxPending, Mode mode,
+                               TimerService timer) {
+        this(refillInterval, burstSize, maxPending, mode, timer, DrainExecutors.virtualThreads());
+    }
+
+    // deliveryExecutor runs the onNext calls for items released by the timer
+    public ThrottlingPublisher(Duration refillInterval, int burstSize, int maxPending, Mode mode,
+                               TimerService timer, Executor deliveryExecutor) {
+        if (refillInterval.isNegative() || refillInterval.isZero()) {
+            throw new IllegalArgumentException("Refill interval must be positive");
+        }
+        if (burstSize <= 0 || maxPending <= 0) {
+            throw new IllegalArgumentException("Burst size and pending capacity must be positive");
+        }
+        this.refillIntervalNanos = refillInterval.toNanos();
+        this.burstSize = burstSize;
+        this.maxPending = maxPending;
+        this.mode = mode;
+        this.timer = timer;
+        this.deliveryExecutor = deliveryExecutor;
+        this.tokens = burstSize;
+        this.lastRefillNanos = System.nanoTime();
     }
 
     @Override
@@ -28,33 +93,123 @@ class ThrottlingPublisher<T> implements Publisher<T> {
     }
 
     public void publish(T item) {
-        long now = System.currentTimeMillis();
-        long elapsed = now - lastEmitTime;
-        long delay = Math.max(0, minInterval.toMillis() - elapsed);
-
-        if (delay > 0) {
-            // Schedule emission after delay
-            scheduler.schedule(() -> emitItem(item), delay, TimeUnit.MILLISECONDS);
-        } else {
-            // Emit immediately
-            emitItem(item);
+        synchronized (lock) {
+            if (shutdown) {
+                droppedCount.increment();
+                return;
+            }
+            long now = System.nanoTime();
+            refill(now);
+            if (tokens > 0 && latest == null && pending.isEmpty()) {
+                tokens--;
+                enqueueForSubscribers(item);
+            } else {
+                if (mode == Mode.LATEST) {
+                    if (latest != null) {
+                        droppedCount.increment();
+                    }
+                    latest = item;
+                } else if (pending.size() >= maxPending) {
+                    droppedCount.increment();
+                } else {
+                    pending.add(item);
+                }
+                scheduleDrain(now);
+                return;
+            }
         }
+        dispatch();
     }
 
-    private void emitItem(T item) {
-        lastEmitTime = System.currentTimeMillis();
+    // Number of items discarded because the pending queue or a subscriber's queue
+    // was full, or because a newer item replaced them
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
 
-        for (SubscriptionImpl subscription : subscriptions) {
-            if (subscription.isActive()) {
-                subscription.emitItem(item);
+    public int getPendingCount() {
+        synchronized (lock) {
+            return latest != null ? 1 : pending.size();
+        }
+    }
+
+    // Runs on the timer thread: spend any refilled tokens on pending items,
+    // then leave delivery to the executor
+    private void drainPending() {
+        boolean emitted = false;
+        synchronized (lock) {
+            drainTimeout = null;
+            if (shutdown) {
+                return;
+            }
+            long now = System.nanoTime();
+            refill(now);
+            if (latest != null && tokens > 0) {
+                tokens--;
+                T item = latest;
+                latest = null;
+                enqueueForSubscribers(item);
+                emitted = true;
+            }
+            while (tokens > 0 && !pending.isEmpty()) {
+                tokens--;
+                enqueueForSubscribers(pending.poll());
+                emitted = true;
+            }
+            if (latest != null || !pending.isEmpty()) {
+                scheduleDrain(now);
             }
         }
+        if (emitted) {
+            try {
+                deliveryExecutor.execute(this::dispatch);
+            } catch (RejectedExecutionException e) {
+                // The items stay queued and go out with the next request() or publish()
+            }
+        }
+    }
+
+    // Guarded by lock: arm the drain task for when the next token is due
+    private void scheduleDrain(long now) {
+        if (drainTimeout == null) {
+            long delay = Math.max(0, lastRefillNanos + refillIntervalNanos - now);
+            drainTimeout = timer.schedule(this::drainPending, delay, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Guarded by lock
+    private void refill(long now) {
+        long elapsed = now - lastRefillNanos;
+        long added = elapsed / refillIntervalNanos;
+        if (added <= 0) {
+            return;
+        }
+        if (tokens + added >= burstSize) {
+            tokens = burstSize;
+            lastRefillNanos = now;
+        } else {
+            tokens += added;
+            lastRefillNanos += added * refillIntervalNanos;
+        }
+    }
+
+    // Hand the item to each subscription while holding the lock so emission
+    // order matches token order; delivery itself happens in dispatch()
+    private void enqueueForSubscribers(T item) {
+        subscriptions.forEach(SubscriptionImpl::emitItem, item);
+    }
+
+    private void dispatch() {
+        subscriptions.forEach(SubscriptionImpl::drain);
     }
 
     private class SubscriptionImpl implements Subscription {
         private final Subscriber<? super T> subscriber;
         private final AtomicBoolean cancelled = new AtomicBoolean(false);
         private final AtomicLong requested = new AtomicLong(0);
+        private final AtomicInteger wip = new AtomicInteger(0);
+        // Items accepted while demand was outstanding, waiting for the drainer
+        private final Queue<T> queue = new ArrayBlockingQueue<>(maxPending);
 
         public SubscriptionImpl(Subscriber<? super T> subscriber) {
             this.subscriber = subscriber;
@@ -63,32 +218,84 @@ class ThrottlingPublisher<T> implements Publisher<T> {
         @Override
         public void request(long n) {
             if (n <= 0) {
-                subscriber.onError(new IllegalArgumentException("Requested amount must be positive"));
+                if (cancelled.compareAndSet(false, true)) {
+                    subscriptions.remove(this);
+                    subscriber.onError(new IllegalArgumentException("Requested amount must be positive"));
+                }
                 return;
             }
 
-            requested.addAndGet(n);
+            Demand.add(requested, n);
+            drain();
         }
 
         @Override
         public void cancel() {
-            cancelled.set(true);
-            subscriptions.remove(this);
+            if (cancelled.compareAndSet(false, true)) {
+                subscriptions.remove(this);
+            }
         }
 
         public boolean isActive() {
             return !cancelled.get() && requested.get() > 0;
         }
 
+        // Only subscriptions with outstanding demand take the item
         public void emitItem(T item) {
-            if (requested.get() > 0) {
-                subscriber.onNext(item);
-                requested.decrementAndGet();
+            if (isActive() && !queue.offer(item)) {
+                droppedCount.increment();
+            }
+        }
+
+        // Timer and caller threads may both emit; the wip counter makes
+        // sure only one of them runs onNext at a time, and reentrant requests
+        // from inside onNext only add demand for the active drainer.
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+
+            int missed = 1;
+            for (;;) {
+                long r = requested.get();
+                long e = 0L;
+
+                while (e != r) {
+                    if (cancelled.get()) {
+                        queue.clear();
+                        return;
+                    }
+                    T item = queue.poll();
+                    if (item == null) {
+                        break;
+                    }
+                    subscriber.onNext(item);
+                    e++;
+                }
+
+                if (e != 0L) {
+                    Demand.produced(requested, e);
+                }
+
+                missed = wip.addAndGet(-missed);
+                if (missed == 0) {
+                    break;
+                }
             }
         }
     }
 
+    // Cancel the pending drain task and discard items still waiting for a token.
+    // The timer itself is shared and keeps running.
     public void shutdown() {
-        scheduler.shutdown();
+        synchronized (lock) {
+            shutdown = true;
+            if (drainTimeout != null) {
+                drainTimeout.cancel();
+                drainTimeout = null;
+            }
+            pending.clear();
+            latest = null;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,136 @@
+package com.reactive.functional;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+// Shared plumbing for operators that close a batch on every tick of a timer.
+// One timeout per subscriber is armed at a time and re-armed from the tick, so
+// any number of timed operators share the TimerService thread. The tick only
+// hands the rollover to the drain executor, and finished batches are drained
+// there too, so nothing downstream runs on the timer thread and batches are
+// never delivered while the lock is held. Upstream items and rollovers are
+// serialized by the lock; subclasses add items under it too.
+abstract class TimedBatcher<R> {
+    protected final Object lock = new Object();
+    private final Subscriber<? super R> downstream;
+    private final TimerService timer;
+    private final Executor drainExecutor = DrainExecutors.virtualThreads();
+    private final long periodNanos;
+    private Subscription upstream;
+    private EmissionQueue<R> out;
+    // Guarded by lock
+    private TimerService.Timeout timeout;
+    private boolean terminated;
+
+    TimedBatcher(Subscriber<? super R> downstream, Duration period, TimerService timer) {
+        checkPeriod(period);
+        this.downstream = downstream;
+        this.timer = timer;
+        this.periodNanos = period.toNanos();
+    }
+
+    // Called from onSubscribe. The clock, not demand, decides when batches
+    // close, so upstream is requested unbounded.
+    final void start(Subscription subscription) {
+        this.upstream = subscription;
+        this.out = new EmissionQueue<>(downstream, FunctionalPublisher.DEFAULT_BUFFER_SIZE, n -> { },
+                queue -> cancel(), drainExecutor);
+        downstream.onSubscribe(out);
+        synchronized (lock) {
+            if (!terminated) {
+                timeout = timer.schedule(this::tick, periodNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    // Called by the ofDuration factories, so a bad period fails when the
+    // operator is built rather than when it is subscribed
+    static void checkPeriod(Duration period) {
+        if (period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("Period must be positive");
+        }
+    }
+
+    // Guarded by lock: whether items should still be added to the batch
+    final boolean isTerminated() {
+        return terminated;
+    }
+
+    // Guarded by lock: hand a finished batch downstream
+    final void emitBatch(R batch) {
+        out.offer(batch);
+    }
+
+    // Called from onComplete (null) or onError
+    final void finish(Throwable error) {
+        synchronized (lock) {
+            if (terminated) {
+                return;
+            }
+            terminated = true;
+            if (timeout != null) {
+                timeout.cancel();
+            }
+            if (error == null) {
+                R batch = closeBatch();
+                if (batch != null) {
+                    out.offer(batch);
+                }
+            } else {
+                abandonBatch(error);
+            }
+            out.terminate(error);
+        }
+    }
+
+    // Runs on the timer thread: re-arm, then hand the rollover off
+    private void tick() {
+        synchronized (lock) {
+            if (terminated) {
+                return;
+            }
+            timeout = timer.schedule(this::tick, periodNanos, TimeUnit.NANOSECONDS);
+        }
+        try {
+            drainExecutor.execute(this::rollOver);
+        } catch (RejectedExecutionException e) {
+            // The batch stays open and closes on the next tick or at completion
+        }
+    }
+
+    private void rollOver() {
+        synchronized (lock) {
+            if (terminated) {
+                return;
+            }
+            R batch = closeBatch();
+            if (batch != null) {
+                out.offer(batch);
+            }
+        }
+    }
+
+    private void cancel() {
+        synchronized (lock) {
+            if (!terminated) {
+                terminated = true;
+                if (timeout != null) {
+                    timeout.cancel();
+                }
+                // Nobody is listening any more; just release the open batch
+                closeBatch();
+            }
+        }
+        upstream.cancel();
+    }
+
+    // Guarded by lock: close the current batch, or return null if there is nothing to emit
+    protected abstract R closeBatch();
+
+    // Guarded by lock: the stream failed before the current batch closed
+    protected void abandonBatch(Throwable error) {
+    }
+}
@@ -0,0 +1,28 @@
+package com.reactive.functional;
+
+import java.util.concurrent.TimeUnit;
+
+// Schedules delayed tasks for time-based publishers and operators. Tasks run
+// on the timer's own thread and should hand off any slow work.
+interface TimerService {
+
+    // Handle for a scheduled task
+    interface Timeout {
+        // Returns false if the task already ran or was already cancelled
+        boolean cancel();
+
+        boolean isCancelled();
+
+        boolean isExpired();
+    }
+
+    Timeout schedule(Runnable task, long delay, TimeUnit unit);
+
+    // Stop the timer thread; pending tasks never run and later schedules are rejected
+    void shutdown();
+
+    // Process-wide timer shared by every publisher that is not given its own
+    static TimerService shared() {
+        return HashedWheelTimer.SHARED;
+    }
+}
@@ -0,0 +1,64 @@
+package com.reactive.functional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A window emitted by the window() operators. Items that arrive before anyone
+// subscribes are held and replayed to the first subscriber, so subscribing
+// after receiving the window (even on another thread) loses nothing. Later
+// subscribers only see items emitted after they subscribed.
+class UnicastWindow<T> extends FunctionalPublisher<T> {
+    private List<T> early = new ArrayList<>();
+    private boolean terminated;
+    private Throwable error;
+
+    UnicastWindow(int bufferSize) {
+        super(bufferSize);
+    }
+
+    @Override
+    public synchronized void subscribe(Subscriber<? super T> subscriber) {
+        super.subscribe(subscriber);
+        List<T> replay = early;
+        if (replay == null) {
+            return;
+        }
+        early = null;
+        for (T item : replay) {
+            super.emit(item);
+        }
+        if (terminated) {
+            if (error != null) {
+                super.error(error);
+            } else {
+                super.complete();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void emit(T value) {
+        if (early != null) {
+            early.add(value);
+        } else {
+            super.emit(value);
+        }
+    }
+
+    @Override
+    public synchronized void complete() {
+        terminated = true;
+        if (early == null) {
+            super.complete();
+        }
+    }
+
+    @Override
+    public synchronized void error(Throwable throwable) {
+        terminated = true;
+        error = throwable;
+        if (early == null) {
+            super.error(throwable);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.reactive.functional;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+
+// Splits a stream into windows, each itself a FunctionalPublisher. Count
+// windows open every skip items and close after count items, so skip < count
+// gives overlapping windows and skip > count drops the items in between.
+// Timed windows open with the first item after a tick and close on the next.
+// Cancelling the outer stream cancels upstream and completes open windows.
+class WindowPublisher<T> extends OperatorPublisher<T, FunctionalPublisher<T>> {
+    private final int count;
+    private final int skip;
+    private final Duration period;
+    private final TimerService timer;
+
+    private WindowPublisher(Publisher<T> source, int count, int skip, Duration period, TimerService timer) {
+        super(source);
+        this.count = count;
+        this.skip = skip;
+        this.period = period;
+        this.timer = timer;
+    }
+
+    static <T> WindowPublisher<T> ofCount(Publisher<T> source, int count, int skip) {
+        if (count <= 0 || skip <= 0) {
+            throw new IllegalArgumentException("Window size and skip must be positive");
+        }
+        return new WindowPublisher<>(source, count, skip, null, null);
+    }
+
+    static <T> WindowPublisher<T> ofDuration(Publisher<T> source, Duration period, TimerService timer) {
+        TimedBatcher.checkPeriod(period);
+        return new WindowPublisher<>(source, 0, 0, period, timer);
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super FunctionalPublisher<T>> subscriber) {
+        if (period == null) {
+            source.subscribe(new CountSubscriber<>(subscriber, count, skip));
+        } else {
+            source.subscribe(new TimedSubscriber<>(subscriber, period, timer));
+        }
+    }
+
+    private static class CountSubscriber<T> implements Subscriber<T> {
+        private final Subscriber<? super FunctionalPublisher<T>> downstream;
+        private final int count;
+        private final int skip;
+        // Open windows, oldest first; guarded by this
+        private final ArrayDeque<UnicastWindow<T>> open = new ArrayDeque<>();
+        private Subscription upstream;
+        private EmissionQueue<FunctionalPublisher<T>> out;
+        private volatile boolean firstRequest = true;
+        private long index;
+        private long oldestStart;
+        private boolean terminated;
+
+        CountSubscriber(Subscriber<? super FunctionalPublisher<T>> downstream, int count, int skip) {
+            this.downstream = downstream;
+            this.count = count;
+            this.skip = skip;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.upstream = subscription;
+            // Overlapping windows open ahead of demand; room for them is
+            // added on top of the usual bound
+            int capacity = FunctionalPublisher.DEFAULT_BUFFER_SIZE + (count + skip - 1) / skip;
+            this.out = new EmissionQueue<>(downstream, capacity, this::requestWindows, queue -> cancel());
+            downstream.onSubscribe(out);
+        }
+
+        // n windows need n * skip items, plus the tail of the last window when windows overlap
+        private void requestWindows(long n) {
+            long items = Demand.multiply(n, skip);
+            if (firstRequest) {
+                firstRequest = false;
+                if (count > skip && items != Long.MAX_VALUE) {
+                    items = Math.max(items, items - skip + count);
+                }
+            }
+            upstream.request(items);
+        }
+
+        @Override
+        public synchronized void onNext(T item) {
+            if (terminated) {
+                return;
+            }
+            if (index % skip == 0) {
+                UnicastWindow<T> window = new UnicastWindow<>(count);
+                if (open.isEmpty()) {
+                    oldestStart = index;
+                }
+                open.add(window);
+                out.offer(window);
+            }
+            for (UnicastWindow<T> window : open) {
+                window.emit(item);
+            }
+            index++;
+            if (!open.isEmpty() && index - oldestStart == count) {
+                open.poll().complete();
+                oldestStart += skip;
+            }
+        }
+
+        @Override
+        public synchronized void onError(Throwable throwable) {
+            if (terminated) {
+                return;
+            }
+            terminated = true;
+            for (UnicastWindow<T> window : open) {
+                window.error(throwable);
+            }
+            open.clear();
+            out.terminate(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            synchronized (this) {
+                if (terminated) {
+                    return;
+                }
+                closeAll();
+            }
+            out.terminate(null);
+        }
+
+        private void cancel() {
+            upstream.cancel();
+            synchronized (this) {
+                closeAll();
+            }
+        }
+
+        // Guarded by this
+        private void closeAll() {
+            terminated = true;
+            for (UnicastWindow<T> window : open) {
+                window.complete();
+            }
+            open.clear();
+        }
+    }
+
+    private static class TimedSubscriber<T> extends TimedBatcher<FunctionalPublisher<T>> implements Subscriber<T> {
+        // Guarded by lock
+        private UnicastWindow<T> current;
+
+        TimedSubscriber(Subscriber<? super FunctionalPublisher<T>> downstream, Duration period, TimerService timer) {
+            super(downstream, period, timer);
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            start(subscription);
+        }
+
+        @Override
+        public void onNext(T item) {
+            synchronized (lock) {
+                if (isTerminated()) {
+                    return;
+                }
+                if (current == null) {
+                    current = new UnicastWindow<>(FunctionalPublisher.DEFAULT_BUFFER_SIZE);
+                    emitBatch(current);
+                }
+                current.emit(item);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            finish(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            finish(null);
+        }
+
+        // Windows are emitted when they open; a tick only closes the current one
+        @Override
+        protected FunctionalPublisher<T> closeBatch() {
+            if (current != null) {
+                current.complete();
+                current = null;
+            }
+            return null;
+        }
+
+        @Override
+        protected void abandonBatch(Throwable error) {
+            if (current != null) {
+                current.error(error);
+                current = null;
+            }
+        }
+    }
+}
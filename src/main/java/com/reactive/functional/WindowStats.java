@@ -0,0 +1,41 @@
+package com.reactive.functional;
+
+// Summary of the values seen in one window of a FunctionalDoublePublisher
+public final class WindowStats {
+    private final long count;
+    private final double min;
+    private final double max;
+    private final double sum;
+
+    WindowStats(long count, double min, double max, double sum) {
+        this.count = count;
+        this.min = min;
+        this.max = max;
+        this.sum = sum;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    public double getMean() {
+        return sum / count;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("WindowStats{count=%d, min=%.2f, max=%.2f, mean=%.2f}", count, min, max, getMean());
+    }
+}
@@ -0,0 +1,149 @@
+package com.reactive.functional;
+
+import java.time.Duration;
+
+// Emits min/max/mean/count per window of a primitive double stream. Values are
+// folded into four running fields as they arrive, so a window costs one
+// WindowStats allocation however many values it holds.
+class WindowStatsPublisher extends OperatorPublisher<WindowStats, WindowStats> {
+
+    private WindowStatsPublisher(Publisher<WindowStats> adapter) {
+        super(adapter);
+    }
+
+    static WindowStatsPublisher ofCount(DoublePublisher source, int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Window size must be positive");
+        }
+        return new WindowStatsPublisher(subscriber -> source.subscribe(new CountSubscriber(subscriber, count)));
+    }
+
+    static WindowStatsPublisher ofDuration(DoublePublisher source, Duration period, TimerService timer) {
+        TimedBatcher.checkPeriod(period);
+        return new WindowStatsPublisher(subscriber -> source.subscribe(new TimedSubscriber(subscriber, period, timer)));
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super WindowStats> subscriber) {
+        source.subscribe(subscriber);
+    }
+
+    // Running aggregate for the window in progress
+    private static final class Accumulator {
+        private long count;
+        private double min;
+        private double max;
+        private double sum;
+
+        void add(double value) {
+            if (count == 0) {
+                min = value;
+                max = value;
+            } else if (value < min) {
+                min = value;
+            } else if (value > max) {
+                max = value;
+            }
+            sum += value;
+            count++;
+        }
+
+        boolean isEmpty() {
+            return count == 0;
+        }
+
+        long count() {
+            return count;
+        }
+
+        // Returns the finished window's stats and starts the next window
+        WindowStats close() {
+            WindowStats stats = new WindowStats(count, min, max, sum);
+            count = 0;
+            sum = 0.0;
+            return stats;
+        }
+    }
+
+    // Each requested WindowStats is count upstream values
+    private static class CountSubscriber implements DoubleSubscriber {
+        private final Subscriber<? super WindowStats> downstream;
+        private final int count;
+        private final Accumulator window = new Accumulator();
+        private Subscription upstream;
+        private EmissionQueue<WindowStats> out;
+
+        CountSubscriber(Subscriber<? super WindowStats> downstream, int count) {
+            this.downstream = downstream;
+            this.count = count;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.upstream = subscription;
+            this.out = new EmissionQueue<>(downstream, FunctionalPublisher.DEFAULT_BUFFER_SIZE,
+                    n -> upstream.request(Demand.multiply(n, count)), queue -> upstream.cancel());
+            downstream.onSubscribe(out);
+        }
+
+        @Override
+        public void onNext(double item) {
+            window.add(item);
+            if (window.count() == count) {
+                out.offer(window.close());
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            out.terminate(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            if (!window.isEmpty()) {
+                out.offer(window.close());
+            }
+            out.terminate(null);
+        }
+    }
+
+    // Emits stats for whatever arrived during each period; idle periods emit nothing
+    private static class TimedSubscriber extends TimedBatcher<WindowStats> implements DoubleSubscriber {
+        // Guarded by lock
+        private final Accumulator window = new Accumulator();
+
+        TimedSubscriber(Subscriber<? super WindowStats> downstream, Duration period, TimerService timer) {
+            super(downstream, period, timer);
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            start(subscription);
+        }
+
+        @Override
+        public void onNext(double item) {
+            synchronized (lock) {
+                if (!isTerminated()) {
+                    window.add(item);
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            finish(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            finish(null);
+        }
+
+        @Override
+        protected WindowStats closeBatch() {
+            return window.isEmpty() ? null : window.close();
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.reactive.iterator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.function.DoubleConsumer;
+import java.util.stream.DoubleStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Temperature collection stored outside the Java heap
+ *
+ * Readings live in fixed-size chunks of direct memory, so a long history adds
+ * nothing for the garbage collector to trace or copy, and indexes are longs,
+ * not capped at Integer.MAX_VALUE. In file-backed mode each chunk is a
+ * memory-mapped region of one append-only file: nothing is parsed on open,
+ * chunks are mapped on first access, and the operating system pages the data
+ * in and out through the page cache.
+ *
+ * Like TemperatureCollection this is not thread-safe; iterate from the thread
+ * that appends, or after appending has stopped.
+ */
+public class OffHeapTemperatureCollection implements Iterable<Double>, AutoCloseable {
+    // Default chunk of 64K readings, 512 KiB
+    public static final int DEFAULT_CHUNK_CAPACITY = 1 << 16;
+
+    // File layout: magic, chunk capacity, reading count, then the chunks
+    private static final long MAGIC = 0x54454d5048495354L; // "TEMPHIST"
+    private static final int HEADER_BYTES = 64;
+    private static final int CHUNK_CAPACITY_OFFSET = 8;
+    private static final int COUNT_OFFSET = 16;
+
+    private final int chunkShift;
+    private final int chunkMask;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    // Chunks mapped or allocated so far; null entries are mapped on first access
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private long size;
+    private boolean closed;
+
+    // Heap-free, in-memory collection with the default chunk size
+    public OffHeapTemperatureCollection() {
+        this(DEFAULT_CHUNK_CAPACITY);
+    }
+
+    // chunkCapacity is rounded up to a power of two
+    public OffHeapTemperatureCollection(int chunkCapacity) {
+        this(null, null, shiftFor(chunkCapacity), 0L);
+    }
+
+    private OffHeapTemperatureCollection(FileChannel channel, MappedByteBuffer header, int chunkShift, long size) {
+        this.channel = channel;
+        this.header = header;
+        this.chunkShift = chunkShift;
+        this.chunkMask = (1 << chunkShift) - 1;
+        this.size = size;
+        long chunkCount = (size + chunkMask) >>> chunkShift;
+        for (long i = 0; i < chunkCount; i++) {
+            chunks.add(null);
+        }
+    }
+
+    // Open or create a file-backed collection. Readings already in the file are
+    // available immediately and are read lazily through the page cache.
+    public static OffHeapTemperatureCollection open(Path file) throws IOException {
+        return open(file, DEFAULT_CHUNK_CAPACITY);
+    }
+
+    // chunkCapacity only applies to new files; existing files keep their own
+    public static OffHeapTemperatureCollection open(Path file, int chunkCapacity) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            boolean created = channel.size() == 0;
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (created) {
+                header.putLong(0, MAGIC);
+                header.putInt(CHUNK_CAPACITY_OFFSET, 1 << shiftFor(chunkCapacity));
+                header.putLong(COUNT_OFFSET, 0L);
+            } else if (header.getLong(0) != MAGIC) {
+                throw new IOException("Not a temperature history file: " + file);
+            }
+            int shift = shiftFor(header.getInt(CHUNK_CAPACITY_OFFSET));
+            return new OffHeapTemperatureCollection(channel, header, shift, header.getLong(COUNT_OFFSET));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static int shiftFor(int chunkCapacity) {
+        if (chunkCapacity <= 0 || chunkCapacity > (1 << 27)) {
+            throw new IllegalArgumentException("Chunk capacity must be between 1 and 2^27: " + chunkCapacity);
+        }
+        return 32 - Integer.numberOfLeadingZeros(chunkCapacity - 1);
+    }
+
+    // Add a temperature reading to the collection
+    public void addTemperature(double temperature) {
+        ensureOpen();
+        int offset = (int) (size & chunkMask);
+        if (offset == 0 && (size >>> chunkShift) == chunks.size()) {
+            chunks.add(null);
+        }
+        chunk(size >>> chunkShift).putDouble(offset << 3, temperature);
+        size++;
+        if (header != null) {
+            header.putLong(COUNT_OFFSET, size);
+        }
+    }
+
+    // Get the number of temperature readings
+    public long size() {
+        return size;
+    }
+
+    // Get a temperature at a specific index
+    public double getTemperature(long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        ensureOpen();
+        return chunk(index >>> chunkShift).getDouble((int) (index & chunkMask) << 3);
+    }
+
+    // Whether readings are written to a file
+    public boolean isFileBacked() {
+        return channel != null;
+    }
+
+    // Write appended readings and the count through to the file
+    public void force() {
+        ensureOpen();
+        if (header == null) {
+            return;
+        }
+        for (ByteBuffer chunk : chunks) {
+            if (chunk instanceof MappedByteBuffer mapped) {
+                mapped.force();
+            }
+        }
+        header.force();
+    }
+
+    // Flush a file-backed collection and release its mappings. Direct memory of
+    // an in-memory collection is returned once the buffers are garbage collected.
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        if (header != null) {
+            force();
+        }
+        closed = true;
+        chunks.clear();
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    // The chunkIndex-th chunk, mapped or allocated on first access; readings are
+    // little-endian so history files read the same on any platform
+    private ByteBuffer chunk(long chunkIndex) {
+        ByteBuffer chunk = chunks.get((int) chunkIndex);
+        if (chunk == null) {
+            long bytes = (long) Double.BYTES << chunkShift;
+            try {
+                if (channel != null) {
+                    chunk = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + chunkIndex * bytes, bytes);
+                } else {
+                    chunk = ByteBuffer.allocateDirect((int) bytes);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            chunk.order(ByteOrder.LITTLE_ENDIAN);
+            chunks.set((int) chunkIndex, chunk);
+        }
+        return chunk;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Collection is closed");
+        }
+    }
+
+    @Override
+    public PrimitiveIterator.OfDouble iterator() {
+        return new ChunkIterator(0, size);
+    }
+
+    // Custom iterator that only returns temperatures above a threshold
+    public PrimitiveIterator.OfDouble aboveThresholdIterator(double threshold) {
+        PrimitiveIterator.OfDouble all = iterator();
+        return new PrimitiveIterator.OfDouble() {
+            private double nextElement;
+            private boolean hasNextElement = false;
+
+            @Override
+            public boolean hasNext() {
+                while (!hasNextElement && all.hasNext()) {
+                    double current = all.nextDouble();
+                    if (current > threshold) {
+                        nextElement = current;
+                        hasNextElement = true;
+                    }
+                }
+                return hasNextElement;
+            }
+
+            @Override
+            public double nextDouble() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                hasNextElement = false;
+                return nextElement;
+            }
+        };
+    }
+
+    // Splittable view over the readings present when it is created. All chunks
+    // are mapped up front (cheap: mapping reads nothing) so that parallel
+    // traversal never mutates the chunk list.
+    @Override
+    public Spliterator.OfDouble spliterator() {
+        ensureOpen();
+        for (int i = 0; i < chunks.size(); i++) {
+            chunk(i);
+        }
+        return new ChunkSpliterator(0, size);
+    }
+
+    public DoubleStream doubleStream() {
+        return StreamSupport.doubleStream(spliterator(), false);
+    }
+
+    public DoubleStream parallelDoubleStream() {
+        return StreamSupport.doubleStream(spliterator(), true);
+    }
+
+    // Walks [position, end), looking up the chunk only when crossing into the next one
+    private class ChunkIterator implements PrimitiveIterator.OfDouble {
+        private long position;
+        private final long end;
+        private ByteBuffer current;
+
+        ChunkIterator(long position, long end) {
+            this.position = position;
+            this.end = end;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return position < end;
+        }
+
+        @Override
+        public double nextDouble() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int offset = (int) (position & chunkMask);
+            if (current == null || offset == 0) {
+                ensureOpen();
+                current = chunk(position >>> chunkShift);
+            }
+            position++;
+            return current.getDouble(offset << 3);
+        }
+    }
+
+    // Splits on chunk boundaries where possible so each half scans whole chunks
+    private class ChunkSpliterator implements Spliterator.OfDouble {
+        private long origin;
+        private final long fence;
+
+        ChunkSpliterator(long origin, long fence) {
+            this.origin = origin;
+            this.fence = fence;
+        }
+
+        @Override
+        public Spliterator.OfDouble trySplit() {
+            long mid = (origin + fence) >>> 1;
+            long aligned = mid & ~(long) chunkMask;
+            if (aligned > origin) {
+                mid = aligned;
+            }
+            if (mid <= origin) {
+                return null;
+            }
+            ChunkSpliterator prefix = new ChunkSpliterator(origin, mid);
+            origin = mid;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            if (origin >= fence) {
+                return false;
+            }
+            action.accept(chunk(origin >>> chunkShift).getDouble((int) (origin & chunkMask) << 3));
+            origin++;
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            while (origin < fence) {
+                ByteBuffer chunk = chunk(origin >>> chunkShift);
+                int from = (int) (origin & chunkMask);
+                int to = (int) Math.min(chunkMask + 1L, from + (fence - origin));
+                for (int i = from; i < to; i++) {
+                    action.accept(chunk.getDouble(i << 3));
+                }
+                origin += to - from;
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - origin;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL;
+        }
+    }
+}
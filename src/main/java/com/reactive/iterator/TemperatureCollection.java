@@ -1,100 +1,344 @@
 package com.reactive.iterator;
 
-import java.util.Iterator;
-import java.util.List;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.function.DoubleConsumer;
+import java.util.stream.DoubleStream;
+import java.util.stream.StreamSupport;
 
 /**
  * Custom temperature collection that implements the Iterable interface
  * to demonstrate the Iterator pattern
+ *
+ * Readings are stored unboxed in a growable double[], and the iterators and
+ * spliterator are the primitive OfDouble variants, so adding, scanning and
+ * streaming readings never allocate a Double. Boxing only happens when a
+ * caller uses the plain Iterator&lt;Double&gt; view, e.g. in a for-each loop.
+ *
+ * Each reading also carries a timestamp in a parallel long[] column. Readings
+ * arrive in time order, so time-range queries binary-search the column. A zone
+ * map keeps the min and max of every block of ZONE_SIZE readings, so
+ * value-range queries skip blocks that cannot match.
  */
 public class TemperatureCollection implements Iterable<Double> {
-    private final List<Double> temperatures;
+    private static final int DEFAULT_CAPACITY = 16;
+    // Readings per zone map block
+    static final int ZONE_SIZE = 1024;
+    private static final int ZONE_SHIFT = 10;
+
+    private double[] temperatures;
+    private long[] timestamps;
+    // Min and max reading of each block; NaN readings only set zoneHasNaN,
+    // which stops the block from being taken whole
+    private double[] zoneMin = new double[0];
+    private double[] zoneMax = new double[0];
+    private boolean[] zoneHasNaN = new boolean[0];
+    private int size;
 
     public TemperatureCollection() {
-        this.temperatures = new ArrayList<>();
+        this(DEFAULT_CAPACITY);
     }
 
-    // Add a temperature reading to the collection
+    // Pre-size the backing array when the number of readings is known
+    public TemperatureCollection(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + initialCapacity);
+        }
+        this.temperatures = new double[initialCapacity];
+        this.timestamps = new long[initialCapacity];
+    }
+
+    // Add a temperature reading to the collection, stamped with the current time
     public void addTemperature(double temperature) {
-        temperatures.add(temperature);
+        long now = System.currentTimeMillis();
+        // Keep the column ordered even if the wall clock steps back
+        addTemperature(size == 0 ? now : Math.max(now, timestamps[size - 1]), temperature);
+    }
+
+    // Add a reading taken at timestampMillis; readings must arrive in time order
+    public void addTemperature(long timestampMillis, double temperature) {
+        if (size > 0 && timestampMillis < timestamps[size - 1]) {
+            throw new IllegalArgumentException("Timestamp " + timestampMillis
+                    + " is before the latest reading at " + timestamps[size - 1]);
+        }
+        if (size == temperatures.length) {
+            grow();
+        }
+        int zone = size >>> ZONE_SHIFT;
+        if (zone == zoneMin.length) {
+            zoneMin = Arrays.copyOf(zoneMin, Math.max(4, zone * 2));
+            zoneMax = Arrays.copyOf(zoneMax, zoneMin.length);
+            zoneHasNaN = Arrays.copyOf(zoneHasNaN, zoneMin.length);
+        }
+        if ((size & (ZONE_SIZE - 1)) == 0) {
+            zoneMin[zone] = Double.POSITIVE_INFINITY;
+            zoneMax[zone] = Double.NEGATIVE_INFINITY;
+        }
+        if (Double.isNaN(temperature)) {
+            zoneHasNaN[zone] = true;
+        } else if (temperature < zoneMin[zone]) {
+            zoneMin[zone] = temperature;
+        }
+        if (temperature > zoneMax[zone]) {
+            zoneMax[zone] = temperature;
+        }
+        temperatures[size] = temperature;
+        timestamps[size] = timestampMillis;
+        size++;
+    }
+
+    // Grow by half again, like ArrayList
+    private void grow() {
+        int newCapacity = Math.max(DEFAULT_CAPACITY, temperatures.length + (temperatures.length >> 1));
+        if (newCapacity < 0) {
+            newCapacity = Integer.MAX_VALUE - 8;
+        }
+        temperatures = Arrays.copyOf(temperatures, newCapacity);
+        timestamps = Arrays.copyOf(timestamps, newCapacity);
     }
 
     // Get the number of temperature readings
     public int size() {
-        return temperatures.size();
+        return size;
     }
 
     // Get a temperature at a specific index
     public Double getTemperature(int index) {
-        if (index < 0 || index >= temperatures.size()) {
-            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + temperatures.size());
+        return getTemperatureAsDouble(index);
+    }
+
+    // Get a temperature at a specific index without boxing
+    public double getTemperatureAsDouble(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return temperatures[index];
+    }
+
+    // Get the timestamp of the reading at a specific index
+    public long getTimestamp(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return timestamps[index];
+    }
+
+    // Index of the first reading taken at or after timestampMillis (size if none)
+    public int indexAtOrAfter(long timestampMillis) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] < timestampMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
         }
-        return temperatures.get(index);
+        return low;
     }
 
-    // Standard Iterator implementation using Java's Iterator interface
+    // Readings taken in [fromTs, toTs), located by binary search on the
+    // timestamp column; e.g. range(now - 5 minutes, now + 1) for the last five
+    public DoubleStream range(long fromTs, long toTs) {
+        int from = indexAtOrAfter(fromTs);
+        int to = Math.max(from, indexAtOrAfter(toTs));
+        return StreamSupport.doubleStream(new TemperatureSpliterator(temperatures, from, to), false);
+    }
+
+    // Number of readings in [low, high], skipping blocks the zone map rules out
+    public int countBetween(double low, double high) {
+        int count = 0;
+        for (int zone = 0, zones = zoneCount(); zone < zones; zone++) {
+            int from = zone << ZONE_SHIFT;
+            int to = Math.min(size, from + ZONE_SIZE);
+            if (zoneMin[zone] >= low && zoneMax[zone] <= high && !zoneHasNaN[zone]) {
+                count += to - from;
+            } else if (zoneMax[zone] >= low && zoneMin[zone] <= high) {
+                for (int i = from; i < to; i++) {
+                    double value = temperatures[i];
+                    count += value >= low && value <= high ? 1 : 0;
+                }
+            }
+        }
+        return count;
+    }
+
+    // Readings in [low, high] in time order, skipping blocks the zone map rules
+    // out and copying blocks that lie entirely inside the range
+    public double[] temperaturesBetween(double low, double high) {
+        double[] out = new double[countBetween(low, high)];
+        int k = 0;
+        for (int zone = 0, zones = zoneCount(); zone < zones && k < out.length; zone++) {
+            int from = zone << ZONE_SHIFT;
+            int to = Math.min(size, from + ZONE_SIZE);
+            if (zoneMin[zone] >= low && zoneMax[zone] <= high && !zoneHasNaN[zone]) {
+                System.arraycopy(temperatures, from, out, k, to - from);
+                k += to - from;
+            } else if (zoneMax[zone] >= low && zoneMin[zone] <= high) {
+                for (int i = from; i < to; i++) {
+                    double value = temperatures[i];
+                    if (value >= low && value <= high) {
+                        out[k++] = value;
+                    }
+                }
+            }
+        }
+        return out;
+    }
+
+    private int zoneCount() {
+        return (size + ZONE_SIZE - 1) >>> ZONE_SHIFT;
+    }
+
+    // Standard Iterator implementation; nextDouble() avoids boxing
     @Override
-    public Iterator<Double> iterator() {
+    public PrimitiveIterator.OfDouble iterator() {
         return new TemperatureIterator();
     }
 
+    // Splittable view over the readings present when it is created
+    @Override
+    public Spliterator.OfDouble spliterator() {
+        return new TemperatureSpliterator(temperatures, 0, size);
+    }
+
+    // Sequential stream of the readings
+    public DoubleStream doubleStream() {
+        return StreamSupport.doubleStream(spliterator(), false);
+    }
+
+    // Parallel stream of the readings, split across the common fork-join pool
+    public DoubleStream parallelDoubleStream() {
+        return StreamSupport.doubleStream(spliterator(), true);
+    }
+
+    // Number of readings above the threshold, scanned in bulk
+    public int countAboveThreshold(double threshold) {
+        return ThresholdScan.count(temperatures, 0, size, threshold);
+    }
+
+    // Readings above the threshold, compacted into a new array in order
+    public double[] temperaturesAboveThreshold(double threshold) {
+        return ThresholdScan.compact(temperatures, 0, size, threshold);
+    }
+
+    // Index ranges of consecutive readings above the threshold, flattened into
+    // half-open [start, end) pairs: {start0, end0, start1, end1, ...}
+    public int[] rangesAboveThreshold(double threshold) {
+        return ThresholdScan.ranges(temperatures, 0, size, threshold);
+    }
+
     // Custom iterator implementation
-    private class TemperatureIterator implements Iterator<Double> {
+    private class TemperatureIterator implements PrimitiveIterator.OfDouble {
         private int position = 0;
 
         @Override
         public boolean hasNext() {
-            return position < temperatures.size();
+            return position < size;
         }
 
         @Override
-        public Double next() {
+        public double nextDouble() {
             if (!hasNext()) {
                 throw new NoSuchElementException();
             }
-            return temperatures.get(position++);
+            return temperatures[position++];
         }
     }
 
     // Custom iterator that only returns temperatures above a threshold
-    public Iterator<Double> aboveThresholdIterator(double threshold) {
-        return new Iterator<Double>() {
+    public PrimitiveIterator.OfDouble aboveThresholdIterator(double threshold) {
+        return new PrimitiveIterator.OfDouble() {
             private int position = 0;
-            private Double nextElement = null;
+            private double nextElement;
+            private boolean hasNextElement = false;
 
             // Helper method to find the next element above threshold
             private void findNext() {
-                // Reset next element
-                nextElement = null;
-
                 // Find next temperature above threshold
-                while (position < temperatures.size() && nextElement == null) {
-                    Double current = temperatures.get(position++);
+                while (position < size && !hasNextElement) {
+                    double current = temperatures[position++];
                     if (current > threshold) {
                         nextElement = current;
+                        hasNextElement = true;
                     }
                 }
             }
 
             @Override
             public boolean hasNext() {
-                if (nextElement == null) {
+                if (!hasNextElement) {
                     findNext();
                 }
-                return nextElement != null;
+                return hasNextElement;
             }
 
             @Override
-            public Double next() {
+            public double nextDouble() {
                 if (!hasNext()) {
                     throw new NoSuchElementException();
                 }
-                Double result = nextElement;
-                nextElement = null; // Reset for the next call to hasNext()
-                return result;
+                hasNextElement = false; // Reset for the next call to hasNext()
+                return nextElement;
             }
         };
     }
-}
\ No newline at end of file
+
+    // Covers [origin, fence) of the array captured at creation; trySplit hands
+    // off the lower half so fork-join tasks get balanced, contiguous ranges
+    private static final class TemperatureSpliterator implements Spliterator.OfDouble {
+        private final double[] array;
+        private int origin;
+        private final int fence;
+
+        TemperatureSpliterator(double[] array, int origin, int fence) {
+            this.array = array;
+            this.origin = origin;
+            this.fence = fence;
+        }
+
+        @Override
+        public Spliterator.OfDouble trySplit() {
+            int mid = (origin + fence) >>> 1;
+            if (mid <= origin) {
+                return null;
+            }
+            TemperatureSpliterator prefix = new TemperatureSpliterator(array, origin, mid);
+            origin = mid;
+            return prefix;
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            if (origin >= fence) {
+                return false;
+            }
+            action.accept(array[origin++]);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            double[] a = array;
+            int i = origin;
+            int hi = fence;
+            origin = hi;
+            for (; i < hi; i++) {
+                action.accept(a[i]);
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - origin;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.reactive.iterator;
+
+import java.util.Arrays;
+
+/**
+ * Bulk threshold scans over a double[] of readings
+ *
+ * The kernels work on blocks of eight readings. Each block is counted with
+ * branch-free arithmetic that the JIT can compile to SIMD instructions, and a
+ * block is only examined reading by reading when it holds a mix of matches and
+ * non-matches. (The incubating Vector API would make the lanes explicit but
+ * needs --add-modules at compile and run time; plain Java keeps the collection
+ * usable everywhere.)
+ *
+ * Only count() is reliably faster than iterating: it reads each reading once
+ * and allocates nothing. compact() and ranges() still have to touch every
+ * reading and build their result, so they only pay off when many readings
+ * match. For sparse output compact() falls back to a plain loop, and neither
+ * beats aboveThresholdIterator there. ThresholdScanBenchmark compares them.
+ */
+final class ThresholdScan {
+    static final int LANES = 8;
+    // Readings counted up front to guess how dense compact()'s output will be
+    static final int SAMPLE = 1 << 16;
+
+    private ThresholdScan() {
+    }
+
+    // Number of readings in [from, to) strictly above the threshold
+    static int count(double[] a, int from, int to, double threshold) {
+        // -0.0 would make threshold - 0.0 negative; see block()
+        threshold += 0.0;
+        int count = 0;
+        int i = from;
+        for (int limit = to - LANES; i <= limit; i += LANES) {
+            count += block(a, i, threshold);
+        }
+        for (; i < to; i++) {
+            count += a[i] > threshold ? 1 : 0;
+        }
+        return count;
+    }
+
+    // The readings in [from, to) above the threshold, in order. When a leading
+    // sample suggests fewer than one match per block, a plain loop with a
+    // growing result is cheapest, since a second pass would cost more than the
+    // copying it saves. Otherwise the vectorized count sizes the result
+    // exactly, and mixed blocks are written branch-free, each reading stored
+    // and the cursor advanced only past matches.
+    static double[] compact(double[] a, int from, int to, double threshold) {
+        threshold += 0.0;
+        int sample = Math.min(to - from, SAMPLE);
+        int sampled = count(a, from, from + sample, threshold);
+        if (sampled * LANES < sample) {
+            long expected = (long) sampled * (to - from) / sample;
+            return compactSparse(a, from, to, threshold, (int) Math.min(expected + 16, to - from));
+        }
+        double[] out = new double[count(a, from, to, threshold)];
+        int k = 0;
+        int i = from;
+        for (int limit = to - LANES; i <= limit && k < out.length; i += LANES) {
+            int matches = block(a, i, threshold);
+            if (matches == LANES) {
+                System.arraycopy(a, i, out, k, LANES);
+                k += LANES;
+            } else if (matches != 0) {
+                if (k + LANES <= out.length) {
+                    for (int j = i; j < i + LANES; j++) {
+                        double value = a[j];
+                        out[k] = value;
+                        k += value > threshold ? 1 : 0;
+                    }
+                } else {
+                    for (int j = i; j < i + LANES; j++) {
+                        if (a[j] > threshold) {
+                            out[k++] = a[j];
+                        }
+                    }
+                }
+            }
+        }
+        for (; i < to && k < out.length; i++) {
+            if (a[i] > threshold) {
+                out[k++] = a[i];
+            }
+        }
+        return out;
+    }
+
+    private static double[] compactSparse(double[] a, int from, int to, double threshold, int capacity) {
+        double[] out = new double[capacity];
+        int k = 0;
+        for (int i = from; i < to; i++) {
+            if (a[i] > threshold) {
+                if (k == out.length) {
+                    out = Arrays.copyOf(out, Math.max(16, out.length * 2));
+                }
+                out[k++] = a[i];
+            }
+        }
+        return k == out.length ? out : Arrays.copyOf(out, k);
+    }
+
+    // Runs of consecutive readings above the threshold as flattened half-open
+    // [start, end) pairs: {start0, end0, start1, end1, ...}
+    static int[] ranges(double[] a, int from, int to, double threshold) {
+        threshold += 0.0;
+        int[] out = new int[16];
+        int n = 0;
+        int runStart = -1;
+        int i = from;
+        for (int limit = to - LANES; i <= limit; i += LANES) {
+            int matches = block(a, i, threshold);
+            // Whole block continues the current state: nothing opens or closes
+            if ((matches == 0 && runStart < 0) || (matches == LANES && runStart >= 0)) {
+                continue;
+            }
+            for (int j = i; j < i + LANES; j++) {
+                boolean above = a[j] > threshold;
+                if (above && runStart < 0) {
+                    runStart = j;
+                } else if (!above && runStart >= 0) {
+                    if (n + 2 > out.length) {
+                        out = Arrays.copyOf(out, out.length * 2);
+                    }
+                    out[n++] = runStart;
+                    out[n++] = j;
+                    runStart = -1;
+                }
+            }
+        }
+        for (; i < to; i++) {
+            boolean above = a[i] > threshold;
+            if (above && runStart < 0) {
+                runStart = i;
+            } else if (!above && runStart >= 0) {
+                if (n + 2 > out.length) {
+                    out = Arrays.copyOf(out, out.length * 2);
+                }
+                out[n++] = runStart;
+                out[n++] = i;
+                runStart = -1;
+            }
+        }
+        if (runStart >= 0) {
+            out = n + 2 > out.length ? Arrays.copyOf(out, n + 2) : out;
+            out[n++] = runStart;
+            out[n++] = to;
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    // Matches in a[i .. i+7]. The sign bit of threshold - value is set exactly
+    // when value > threshold, provided the threshold is not -0.0: -0.0 - 0.0
+    // is -0.0, so callers add 0.0 first to make it +0.0. That compiles to
+    // straight-line SIMD code whose speed does not depend on how the readings
+    // fall. NaN has no meaningful
+    // sign and infinities can turn the difference into NaN, so a block whose
+    // sum is not finite, or a non-finite threshold, is recounted exactly.
+    private static int block(double[] a, int i, double t) {
+        long signs = (Double.doubleToRawLongBits(t - a[i]) >>> 63)
+                + (Double.doubleToRawLongBits(t - a[i + 1]) >>> 63)
+                + (Double.doubleToRawLongBits(t - a[i + 2]) >>> 63)
+                + (Double.doubleToRawLongBits(t - a[i + 3]) >>> 63)
+                + (Double.doubleToRawLongBits(t - a[i + 4]) >>> 63)
+                + (Double.doubleToRawLongBits(t - a[i + 5]) >>> 63)
+                + (Double.doubleToRawLongBits(t - a[i + 6]) >>> 63)
+                + (Double.doubleToRawLongBits(t - a[i + 7]) >>> 63);
+        double sum = (a[i] + a[i + 1]) + (a[i + 2] + a[i + 3]) + (a[i + 4] + a[i + 5]) + (a[i + 6] + a[i + 7]);
+        if (!Double.isFinite(sum) || !Double.isFinite(t)) {
+            int exact = 0;
+            for (int j = i; j < i + LANES; j++) {
+                exact += a[j] > t ? 1 : 0;
+            }
+            return exact;
+        }
+        return (int) signs;
+    }
+}
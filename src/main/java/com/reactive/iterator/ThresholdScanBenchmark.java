@@ -0,0 +1,81 @@
+package com.reactive.iterator;
+
+import java.util.Iterator;
+import java.util.Random;
+import java.util.function.IntSupplier;
+
+/**
+ * Compares the bulk threshold scans with aboveThresholdIterator
+ *
+ * A plain warm-up-then-measure harness: each variant runs a few warm-up
+ * rounds so the JIT compiles it, then reports the best of the timed rounds.
+ * Pass the number of readings as the first argument (default 10 million).
+ */
+public class ThresholdScanBenchmark {
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    // Keeps results observable so the JIT cannot drop the scans
+    private static double sink;
+
+    public static void main(String[] args) {
+        int readings = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        TemperatureCollection temperatures = new TemperatureCollection(readings);
+        Random random = new Random(42);
+        for (int i = 0; i < readings; i++) {
+            // Daily cycle plus noise, roughly 5..35 °C
+            temperatures.addTemperature(20 + 10 * Math.sin(i / 720.0) + random.nextGaussian() * 2);
+        }
+
+        for (double threshold : new double[] {32.0, 25.0, 15.0}) {
+            System.out.printf("%,d readings, threshold %.1f°C (%d%% above)%n", readings, threshold,
+                    100L * temperatures.countAboveThreshold(threshold) / readings);
+            double boxed = measure(() -> {
+                int count = 0;
+                Iterator<Double> iterator = temperatures.aboveThresholdIterator(threshold);
+                while (iterator.hasNext()) {
+                    sink += iterator.next();
+                    count++;
+                }
+                return count;
+            });
+            double primitive = measure(() -> {
+                int count = 0;
+                var iterator = temperatures.aboveThresholdIterator(threshold);
+                while (iterator.hasNext()) {
+                    sink += iterator.nextDouble();
+                    count++;
+                }
+                return count;
+            });
+            double count = measure(() -> temperatures.countAboveThreshold(threshold));
+            double compact = measure(() -> temperatures.temperaturesAboveThreshold(threshold).length);
+            double ranges = measure(() -> temperatures.rangesAboveThreshold(threshold).length);
+
+            report("iterator, boxed next()", boxed, boxed);
+            report("iterator, nextDouble()", primitive, boxed);
+            report("countAboveThreshold", count, boxed);
+            report("temperaturesAboveThreshold", compact, boxed);
+            report("rangesAboveThreshold", ranges, boxed);
+            System.out.println();
+        }
+    }
+
+    // Best time in milliseconds over the measured rounds
+    private static double measure(IntSupplier scan) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink += scan.getAsInt();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            sink += scan.getAsInt();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1_000_000.0;
+    }
+
+    private static void report(String name, double millis, double baseline) {
+        System.out.printf("  %-28s %8.2f ms  %5.1fx%n", name, millis, baseline / millis);
+    }
+}
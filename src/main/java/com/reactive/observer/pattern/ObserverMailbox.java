@@ -0,0 +1,122 @@
+package com.reactive.observer.pattern;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Bounded queue of temperatures waiting for one observer. The station only
+// enqueues; a drain task on the executor delivers to the observer, so a slow
+// observer backs up its own mailbox and nobody else's. At most one drain task
+// per mailbox is scheduled at a time, which keeps update() calls serial.
+final class ObserverMailbox implements Runnable {
+    private final TemperatureObserver observer;
+    private final WeatherStation.OverflowPolicy policy;
+    private final Executor executor;
+    private final LongAdder dropped;
+    private final WeatherStation.ObserverErrorHandler errorHandler;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    // Ring buffer of pending temperatures, guarded by lock
+    private final double[] pending;
+    private int head;
+    private int count;
+    private boolean scheduled;
+    private boolean closed;
+
+    ObserverMailbox(TemperatureObserver observer, int capacity, WeatherStation.OverflowPolicy policy,
+                    Executor executor, LongAdder dropped, WeatherStation.ObserverErrorHandler errorHandler) {
+        this.observer = observer;
+        this.pending = new double[capacity];
+        this.policy = policy;
+        this.executor = executor;
+        this.dropped = dropped;
+        this.errorHandler = errorHandler;
+    }
+
+    void offer(double temperature) {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            if (count == pending.length) {
+                switch (policy) {
+                    case CONFLATE:
+                        // Replace the newest pending value; the observer only needs the latest
+                        pending[(head + count - 1) % pending.length] = temperature;
+                        dropped.increment();
+                        return;
+                    case DROP:
+                        dropped.increment();
+                        return;
+                    case BLOCK:
+                        while (count == pending.length && !closed) {
+                            notFull.awaitUninterruptibly();
+                        }
+                        if (closed) {
+                            return;
+                        }
+                        break;
+                }
+            }
+            pending[(head + count) % pending.length] = temperature;
+            count++;
+            if (!scheduled) {
+                scheduled = true;
+                schedule();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Stop accepting temperatures; ones already queued are still delivered
+    void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Guarded by lock
+    private void schedule() {
+        try {
+            executor.execute(this);
+        } catch (RejectedExecutionException e) {
+            scheduled = false;
+            dropped.add(count);
+            count = 0;
+        }
+    }
+
+    @Override
+    public void run() {
+        for (;;) {
+            double temperature;
+            lock.lock();
+            try {
+                if (count == 0) {
+                    scheduled = false;
+                    return;
+                }
+                temperature = pending[head];
+                head = (head + 1) % pending.length;
+                count--;
+                notFull.signal();
+            } finally {
+                lock.unlock();
+            }
+            try {
+                observer.update(temperature);
+            } catch (RuntimeException e) {
+                // A failing observer must not stop its own mailbox
+                errorHandler.observerFailed(observer, temperature, e);
+            }
+        }
+    }
+}
@@ -1,41 +1,211 @@
 package com.reactive.observer.pattern;
 
-import java.util.ArrayList;
+import com.reactive.common.ChangeSuppression;
+
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
 
 // Subject (Publisher)
+//
+// By default observers are notified synchronously, one after another, on the
+// thread calling setTemperature(). In asynchronous mode each observer gets a
+// bounded mailbox drained on its own task, so setTemperature() only enqueues
+// and its latency no longer depends on the slowest observer.
+//
+// Either mode can filter notifications through a ChangeSuppression policy,
+// checked per observer before anything is delivered or enqueued.
+//
+// A synchronous observer that throws fails setTemperature() itself. An
+// asynchronous one fails on its drain task, where nobody is waiting, so the
+// exception goes to the station's ObserverErrorHandler instead.
 public class WeatherStation {
-    private List<TemperatureObserver> observers;
-    private double temperature;
+    // What an asynchronous observer's full mailbox does with a new temperature
+    public enum OverflowPolicy {
+        // Overwrite the newest pending temperature, so the observer still ends on the latest
+        CONFLATE,
+        // Discard the new temperature
+        DROP,
+        // Block setTemperature() until the observer catches up
+        BLOCK
+    }
+
+    // Told about exceptions thrown by asynchronous observers; runs on the drain task
+    @FunctionalInterface
+    public interface ObserverErrorHandler {
+        void observerFailed(TemperatureObserver observer, double temperature, RuntimeException error);
+
+        // Hands the exception to the drain thread's uncaught exception handler
+        static ObserverErrorHandler uncaught() {
+            return (observer, temperature, error) -> {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, error);
+            };
+        }
+    }
+
+    public static final int DEFAULT_MAILBOX_CAPACITY = 16;
+
+    // Default drain executor: one virtual thread per busy mailbox
+    private static final ExecutorService VIRTUAL_THREADS = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final List<Registration> observers = new CopyOnWriteArrayList<>();
+    // Asynchronous mode only; null when notifying synchronously
+    private final Executor executor;
+    private final OverflowPolicy overflowPolicy;
+    private final int mailboxCapacity;
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder suppressedCount = new LongAdder();
+    private volatile ChangeSuppression changeSuppression = ChangeSuppression.none();
+    private volatile ObserverErrorHandler errorHandler = ObserverErrorHandler.uncaught();
+    private volatile double temperature;
 
     public WeatherStation() {
-        this.observers = new ArrayList<>();
+        this.executor = null;
+        this.overflowPolicy = null;
+        this.mailboxCapacity = 0;
         this.temperature = 0.0;
     }
 
+    // Asynchronous mode with default-sized mailboxes drained on virtual threads
+    public WeatherStation(OverflowPolicy overflowPolicy) {
+        this(overflowPolicy, DEFAULT_MAILBOX_CAPACITY);
+    }
+
+    // Asynchronous mode, draining mailboxes on virtual threads
+    public WeatherStation(OverflowPolicy overflowPolicy, int mailboxCapacity) {
+        this(overflowPolicy, mailboxCapacity, VIRTUAL_THREADS);
+    }
+
+    // Asynchronous mode, draining mailboxes on the given executor, e.g. a shared pool
+    public WeatherStation(OverflowPolicy overflowPolicy, int mailboxCapacity, Executor executor) {
+        if (mailboxCapacity <= 0) {
+            throw new IllegalArgumentException("Mailbox capacity must be positive");
+        }
+        this.executor = Objects.requireNonNull(executor, "executor");
+        this.overflowPolicy = overflowPolicy;
+        this.mailboxCapacity = mailboxCapacity;
+        this.temperature = 0.0;
+    }
+
+    public boolean isAsynchronous() {
+        return executor != null;
+    }
+
+    // Applies to every observer from the next setTemperature() on
+    public void setChangeSuppression(ChangeSuppression changeSuppression) {
+        this.changeSuppression = Objects.requireNonNull(changeSuppression, "changeSuppression");
+    }
+
+    public ChangeSuppression getChangeSuppression() {
+        return changeSuppression;
+    }
+
+    // Applies to every asynchronous observer from its next failure on
+    public void setObserverErrorHandler(ObserverErrorHandler errorHandler) {
+        this.errorHandler = Objects.requireNonNull(errorHandler, "errorHandler");
+    }
+
+    public ObserverErrorHandler getObserverErrorHandler() {
+        return errorHandler;
+    }
+
     public void addObserver(TemperatureObserver observer) {
-        observers.add(observer);
+        ObserverMailbox mailbox = executor == null ? null
+                : new ObserverMailbox(observer, mailboxCapacity, overflowPolicy, executor, droppedCount,
+                        this::observerFailed);
+        observers.add(new Registration(observer, mailbox));
         System.out.println("Added observer: " +
                 (observer instanceof WeatherDisplay ?
                         ((WeatherDisplay)observer).getName() : observer.getClass().getSimpleName()));
     }
 
     public void removeObserver(TemperatureObserver observer) {
-        observers.remove(observer);
+        for (Registration registration : observers) {
+            if (registration.observer.equals(observer)) {
+                observers.remove(registration);
+                if (registration.mailbox != null) {
+                    registration.mailbox.close();
+                }
+                break;
+            }
+        }
         System.out.println("Removed observer: " +
                 (observer instanceof WeatherDisplay ?
                         ((WeatherDisplay)observer).getName() : observer.getClass().getSimpleName()));
     }
 
     public void setTemperature(double temperature) {
-        System.out.println("\nWeather station: Temperature changed to " + temperature + "°C");
+        if (executor == null) {
+            System.out.println("\nWeather station: Temperature changed to " + temperature + "°C");
+        }
         this.temperature = temperature;
-        notifyObservers();
+        notifyObservers(temperature);
+    }
+
+    public double getTemperature() {
+        return temperature;
+    }
+
+    // Temperatures an asynchronous observer never saw because its mailbox was
+    // full (DROP) or that were overwritten by a newer one (CONFLATE)
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    // Notifications held back by the change suppression policy, over all observers
+    public long getSuppressedCount() {
+        return suppressedCount.sum();
+    }
+
+    // Notifications held back from one observer, or 0 if it is not registered
+    public long getSuppressedCount(TemperatureObserver observer) {
+        for (Registration registration : observers) {
+            if (registration.observer.equals(observer)) {
+                return registration.tracker.getSuppressedCount();
+            }
+        }
+        return 0L;
     }
 
-    private void notifyObservers() {
-        for (TemperatureObserver observer : observers) {
-            observer.update(temperature);
+    private void notifyObservers(double temperature) {
+        ChangeSuppression suppression = changeSuppression;
+        long now = suppression.isEnabled() ? System.nanoTime() : 0L;
+        for (Registration registration : observers) {
+            if (suppression.isEnabled() && !registration.tracker.shouldNotify(suppression, temperature, now)) {
+                suppressedCount.increment();
+            } else if (registration.mailbox != null) {
+                registration.mailbox.offer(temperature);
+            } else {
+                registration.observer.update(temperature);
+            }
+        }
+    }
+
+    // Called on a mailbox's drain task. A handler that throws in turn must
+    // not stall the mailbox, so that goes to the thread's uncaught handler.
+    private void observerFailed(TemperatureObserver observer, double temperature, RuntimeException error) {
+        try {
+            errorHandler.observerFailed(observer, temperature, error);
+        } catch (RuntimeException handlerError) {
+            handlerError.addSuppressed(error);
+            ObserverErrorHandler.uncaught().observerFailed(observer, temperature, handlerError);
+        }
+    }
+
+    // An observer with its suppression state and, in asynchronous mode, its mailbox
+    private static final class Registration {
+        final TemperatureObserver observer;
+        final ObserverMailbox mailbox;
+        final ChangeSuppression.Tracker tracker = new ChangeSuppression.Tracker();
+
+        Registration(TemperatureObserver observer, ObserverMailbox mailbox) {
+            this.observer = observer;
+            this.mailbox = mailbox;
         }
     }
-}
\ No newline at end of file
+}
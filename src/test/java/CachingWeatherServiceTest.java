@@ -0,0 +1,298 @@
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// WeatherService that caches per-location statistics, so the average and
+// statistics lookups stop rescanning the repository.
+//  - Concurrent lookups for a location with no cached value share one scan.
+//  - Results live for the TTL, and at most maxEntries locations are kept;
+//    the least recently used is evicted first.
+//  - save() writes through to the repository and folds the new reading into
+//    a cached result. A scan still in flight may miss the reading, so it is
+//    discarded and the next lookup scans again.
+// Writes that bypass this service are only picked up once the TTL expires.
+class CachingWeatherService extends WeatherService {
+    private final WeatherRepository repository;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    // Access-ordered, so iteration starts at the least recently used entry; guarded by itself
+    private final LinkedHashMap<String, Entry> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+
+    CachingWeatherService(WeatherRepository repository, int maxEntries, Duration ttl) {
+        this(repository, maxEntries, ttl, System::nanoTime);
+    }
+
+    CachingWeatherService(WeatherRepository repository, int maxEntries, Duration ttl, LongSupplier nanoClock) {
+        super(repository);
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.repository = repository;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    Mono<TemperatureStatistics> getStatistics(String location) {
+        return Mono.defer(() -> {
+            // Read under the lock: complete() clears the entry's field once the scan is done
+            Mono<TemperatureStatistics> inFlight;
+            synchronized (cache) {
+                Entry entry = cache.get(location);
+                if (entry != null && entry.value != null) {
+                    if (nanoClock.getAsLong() - entry.loadedAt < ttlNanos) {
+                        hits.increment();
+                        return Mono.just(copy(entry.value));
+                    }
+                    entry = null;
+                }
+                if (entry == null) {
+                    entry = new Entry();
+                    Entry loading = entry;
+                    entry.inFlight = super.getStatistics(location)
+                            .doOnNext(statistics -> complete(location, loading, statistics))
+                            .doOnError(error -> discard(location, loading))
+                            .cache();
+                    cache.put(location, entry);
+                    evictIfFull();
+                    loads.increment();
+                } else {
+                    hits.increment();
+                }
+                inFlight = entry.inFlight;
+            }
+            // Callers get their own copy, since TemperatureStatistics is mutable.
+            // A scan that has finished by now replays its cached result.
+            return inFlight.map(CachingWeatherService::copy);
+        });
+    }
+
+    // Saves through the repository, then brings a cached result up to date
+    Mono<WeatherReading> save(WeatherReading reading) {
+        return repository.save(reading).doOnNext(saved -> {
+            synchronized (cache) {
+                Entry entry = cache.get(saved.getLocation());
+                if (entry == null) {
+                    return;
+                }
+                if (entry.value == null) {
+                    cache.remove(saved.getLocation());
+                    return;
+                }
+                // Replaced rather than mutated, so copies already handed out stay consistent
+                TemperatureStatistics updated = copy(entry.value);
+                updated.accept(saved.getTemperature());
+                entry.value = updated;
+            }
+        });
+    }
+
+    // Lookups answered without starting a scan, including ones joining a scan in flight
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    // Repository scans started
+    public long getLoadCount() {
+        return loads.sum();
+    }
+
+    private void complete(String location, Entry entry, TemperatureStatistics statistics) {
+        synchronized (cache) {
+            // Only install the result if nothing invalidated the entry meanwhile
+            if (cache.get(location) == entry) {
+                entry.value = statistics;
+                entry.loadedAt = nanoClock.getAsLong();
+                entry.inFlight = null;
+            }
+        }
+    }
+
+    private void discard(String location, Entry entry) {
+        synchronized (cache) {
+            if (cache.get(location) == entry) {
+                cache.remove(location);
+            }
+        }
+    }
+
+    // Guarded by cache
+    private void evictIfFull() {
+        Iterator<Map.Entry<String, Entry>> eldest = cache.entrySet().iterator();
+        while (cache.size() > maxEntries && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    private static TemperatureStatistics copy(TemperatureStatistics statistics) {
+        return new TemperatureStatistics().combine(statistics);
+    }
+
+    // Either a scan in flight or a loaded value; guarded by cache
+    private static final class Entry {
+        Mono<TemperatureStatistics> inFlight;
+        TemperatureStatistics value;
+        long loadedAt;
+    }
+}
+
+class CachingWeatherServiceTest {
+
+    // Counts findByLocation() scans and can hold them open until released
+    static class CountingRepository extends InMemoryWeatherRepository {
+        final AtomicInteger scans = new AtomicInteger();
+        Mono<Void> gate = Mono.empty();
+
+        @Override
+        public Flux<WeatherReading> findByLocation(String location) {
+            return Flux.defer(() -> {
+                scans.incrementAndGet();
+                return gate.thenMany(super.findByLocation(location));
+            });
+        }
+    }
+
+    private static WeatherReading reading(String location, double temperature) {
+        return new WeatherReading(location, temperature, 50.0, 0L);
+    }
+
+    @Test
+    void concurrentLookupsShareOneScan() {
+        CountingRepository repository = new CountingRepository();
+        repository.save(reading("London", 10.0)).block();
+        repository.save(reading("London", 14.0)).block();
+        Sinks.Empty<Void> gate = Sinks.empty();
+        repository.gate = gate.asMono();
+        CachingWeatherService service = new CachingWeatherService(repository, 10, Duration.ofMinutes(1));
+
+        Flux<Double> lookups = Flux.range(0, 100)
+                .flatMap(i -> service.getAverageTemperature("London"));
+        StepVerifier.create(lookups)
+                .then(gate::tryEmitEmpty)
+                .expectNextCount(100)
+                .verifyComplete();
+
+        assertEquals(1, repository.scans.get());
+        assertEquals(1, service.getLoadCount());
+        assertEquals(99, service.getHitCount());
+    }
+
+    @Test
+    void entriesExpireAfterTheTtlAndTheLeastRecentlyUsedIsEvicted() {
+        CountingRepository repository = new CountingRepository();
+        AtomicLong now = new AtomicLong();
+        CachingWeatherService service = new CachingWeatherService(
+                repository, 2, Duration.ofSeconds(10), now::get);
+
+        service.getStatistics("A").block();
+        service.getStatistics("B").block();
+        service.getStatistics("A").block();
+        // C evicts B, which was used less recently than A
+        service.getStatistics("C").block();
+        service.getStatistics("A").block();
+        assertEquals(3, repository.scans.get());
+        service.getStatistics("B").block();
+        assertEquals(4, repository.scans.get());
+
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        service.getStatistics("B").block();
+        assertEquals(5, repository.scans.get());
+    }
+
+    @Test
+    void saveUpdatesTheCachedStatisticsWithoutRescanning() {
+        CountingRepository repository = new CountingRepository();
+        CachingWeatherService service = new CachingWeatherService(repository, 10, Duration.ofMinutes(1));
+        service.save(reading("Paris", 20.0)).block();
+
+        StepVerifier.create(service.getAverageTemperature("Paris")).expectNext(20.0).verifyComplete();
+        service.save(reading("Paris", 30.0)).block();
+        StepVerifier.create(service.getStatistics("Paris"))
+                .assertNext(statistics -> {
+                    assertEquals(2, statistics.getCount());
+                    assertEquals(25.0, statistics.getMean());
+                    assertEquals(30.0, statistics.getMax());
+                })
+                .verifyComplete();
+        assertEquals(1, repository.scans.get());
+    }
+
+    @Test
+    void saveDuringAScanDiscardsItsResult() {
+        CountingRepository repository = new CountingRepository();
+        repository.save(reading("Oslo", 0.0)).block();
+        Sinks.Empty<Void> gate = Sinks.empty();
+        repository.gate = gate.asMono();
+        CachingWeatherService service = new CachingWeatherService(repository, 10, Duration.ofMinutes(1));
+
+        StepVerifier.create(service.getAverageTemperature("Oslo"))
+                .then(() -> service.save(reading("Oslo", 10.0)).block())
+                .then(gate::tryEmitEmpty)
+                .expectNextCount(1)
+                .verifyComplete();
+
+        StepVerifier.create(service.getAverageTemperature("Oslo")).expectNext(5.0).verifyComplete();
+        assertEquals(2, repository.scans.get());
+    }
+
+    @Test
+    void joiningAScanThatFinishesMeanwhileStillGetsItsResult() throws Exception {
+        int joiners = 4;
+        ExecutorService threads = Executors.newFixedThreadPool(joiners + 1);
+        try {
+            for (int i = 0; i < 2_000; i++) {
+                CountingRepository repository = new CountingRepository();
+                repository.save(reading("Rome", 18.0)).block();
+                Sinks.Empty<Void> gate = Sinks.empty();
+                repository.gate = gate.asMono();
+                CachingWeatherService service = new CachingWeatherService(repository, 10, Duration.ofMinutes(1));
+                service.getAverageTemperature("Rome").subscribe();
+
+                // Finish the scan while the other callers are joining it, so
+                // some of them subscribe only after it has completed
+                CyclicBarrier start = new CyclicBarrier(joiners + 1);
+                List<Future<Double>> results = new ArrayList<>();
+                for (int j = 0; j < joiners; j++) {
+                    results.add(threads.submit(() -> {
+                        start.await();
+                        return service.getAverageTemperature("Rome").block(Duration.ofSeconds(5));
+                    }));
+                }
+                threads.submit(() -> {
+                    start.await();
+                    return gate.tryEmitEmpty();
+                });
+                for (Future<Double> result : results) {
+                    assertEquals(18.0, result.get());
+                }
+                assertEquals(1, repository.scans.get());
+            }
+        } finally {
+            threads.shutdown();
+        }
+    }
+}
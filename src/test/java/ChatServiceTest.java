@@ -1,7 +1,17 @@
 import org.junit.jupiter.api.Test;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 class Message {
     private String userId;
     private String content;
@@ -20,13 +30,154 @@ class Message {
     }
 }
 
+// Counts per key in an open-addressing hash table. Keys and their long
+// counts sit in dense arrays in first-seen order; the table itself is an int
+// array of dense positions, so a key costs no objects beyond the key itself.
+// Not thread-safe.
+class KeyedCounter<K> implements Iterable<Tuple2<K, Long>> {
+    private static final int EMPTY = -1;
+
+    private Object[] keys;
+    private long[] counts;
+    private int[] hashes;
+    private int size;
+    // Dense position of each key, or EMPTY; kept at most half full
+    private int[] table;
+
+    KeyedCounter() {
+        this(16);
+    }
+
+    KeyedCounter(int expectedKeys) {
+        int capacity = Math.max(4, expectedKeys);
+        keys = new Object[capacity];
+        counts = new long[capacity];
+        hashes = new int[capacity];
+        table = newTable(Integer.highestOneBit(capacity * 2 - 1) * 2);
+    }
+
+    public void increment(K key) {
+        add(key, 1L);
+    }
+
+    public void add(K key, long delta) {
+        int hash = spread(key.hashCode());
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        for (int index; (index = table[slot]) != EMPTY; slot = (slot + 1) & mask) {
+            if (hashes[index] == hash && keys[index].equals(key)) {
+                counts[index] += delta;
+                return;
+            }
+        }
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            counts = Arrays.copyOf(counts, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        keys[size] = key;
+        counts[size] = delta;
+        hashes[size] = hash;
+        table[slot] = size++;
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+    }
+
+    public long get(K key) {
+        int hash = spread(key.hashCode());
+        int mask = table.length - 1;
+        for (int slot = hash & mask, index; (index = table[slot]) != EMPTY; slot = (slot + 1) & mask) {
+            if (hashes[index] == hash && keys[index].equals(key)) {
+                return counts[index];
+            }
+        }
+        return 0L;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Copy of the current counts, in first-seen order
+    public List<Tuple2<K, Long>> snapshot() {
+        List<Tuple2<K, Long>> result = new ArrayList<>(size);
+        forEach(result::add);
+        return result;
+    }
+
+    // Creates the tuples as it goes, so emitting millions of counts does not
+    // build them all up front
+    @Override
+    public Iterator<Tuple2<K, Long>> iterator() {
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public Tuple2<K, Long> next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                int index = next++;
+                return Tuples.of((K) keys[index], counts[index]);
+            }
+        };
+    }
+
+    private void rehash(int capacity) {
+        int[] rehashed = newTable(capacity);
+        int mask = capacity - 1;
+        for (int index = 0; index < size; index++) {
+            int slot = hashes[index] & mask;
+            while (rehashed[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            rehashed[slot] = index;
+        }
+        table = rehashed;
+    }
+
+    private static int[] newTable(int capacity) {
+        int[] table = new int[capacity];
+        Arrays.fill(table, EMPTY);
+        return table;
+    }
+
+    // Mixes high bits down, since linear probing only looks at the low ones
+    private static int spread(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
+
 class ChatService {
+    // One count per user, in order of each user's first message, emitted
+    // when the messages complete. Unlike groupBy, this opens no inner
+    // publisher per user, so the number of users is not capped by flatMap's
+    // concurrency.
     public Flux<Tuple2<String, Long>> getMessageCountByUser(Flux<Message> messageFlux) {
         return messageFlux
-                .groupBy(Message::getUserId)
-                .flatMap(group -> group.count()
-                        .map(count -> Tuples.of(group.key(), count))
-                );
+                .collect(KeyedCounter<String>::new, (counter, message) -> counter.increment(message.getUserId()))
+                .flatMapIterable(counter -> counter);
+    }
+
+    // Running totals per user, emitted every period and once more on completion
+    public Flux<List<Tuple2<String, Long>>> getMessageCountSnapshots(Flux<Message> messageFlux, Duration period) {
+        return Flux.defer(() -> {
+            KeyedCounter<String> counter = new KeyedCounter<>();
+            // concatMap handles one window at a time, so the counter is never shared between threads
+            return messageFlux
+                    .window(period)
+                    .concatMap(window -> window
+                            .doOnNext(message -> counter.increment(message.getUserId()))
+                            .then(Mono.fromCallable(counter::snapshot)));
+        });
     }
 }
 
@@ -50,4 +201,47 @@ class ChatServiceTest {
                 .expectComplete()
                 .verify();
     }
+
+    @Test
+    void testGetMessageCountByUserBeyondFlatMapConcurrency() {
+        int users = 10_000;
+        Flux<Message> flux = Flux.range(0, users * 3)
+                .map(i -> new Message("user" + (i % users), "Hello"));
+
+        ChatService service = new ChatService();
+        StepVerifier.create(service.getMessageCountByUser(flux))
+                .expectNext(Tuples.of("user0", 3L))
+                .expectNextCount(users - 2)
+                .expectNext(Tuples.of("user" + (users - 1), 3L))
+                .expectComplete()
+                .verify(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void testGetMessageCountSnapshots() {
+        Flux<Message> flux = Flux.concat(
+                Flux.just(new Message("user1", "Hello"), new Message("user2", "Hi")),
+                Flux.just(new Message("user1", "Again")).delaySubscription(Duration.ofMillis(300)));
+
+        ChatService service = new ChatService();
+        List<List<Tuple2<String, Long>>> snapshots =
+                service.getMessageCountSnapshots(flux, Duration.ofMillis(100)).collectList().block();
+
+        assertEquals(List.of(Tuples.of("user1", 1L), Tuples.of("user2", 1L)), snapshots.get(0));
+        assertEquals(List.of(Tuples.of("user1", 2L), Tuples.of("user2", 1L)), snapshots.get(snapshots.size() - 1));
+    }
+
+    @Test
+    void testKeyedCounterGrowsAndKeepsFirstSeenOrder() {
+        KeyedCounter<String> counter = new KeyedCounter<>(2);
+        for (int i = 0; i < 1_000; i++) {
+            counter.add("k" + (i % 100), i);
+        }
+
+        assertEquals(100, counter.size());
+        assertEquals(0 + 100 + 200 + 300 + 400 + 500 + 600 + 700 + 800 + 900, counter.get("k0"));
+        assertEquals(0L, counter.get("missing"));
+        assertEquals("k0", counter.snapshot().get(0).getT1());
+        assertEquals("k99", counter.snapshot().get(99).getT1());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,237 @@
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Embedded WeatherRepository keeping each location's readings in columnar
+// chunks: parallel primitive arrays of temperature, humidity and timestamp.
+// A hash index maps the location to its chunk list. findByLocation() walks
+// the chunks on demand, building one WeatherReading per requested item, so a
+// long history is never copied into a list. Saves to one location are
+// serialised; readers never lock and see the readings saved before they
+// subscribed.
+class InMemoryWeatherRepository implements WeatherRepository {
+    static final int DEFAULT_CHUNK_SIZE = 4096;
+
+    private final ConcurrentMap<String, LocationColumns> index = new ConcurrentHashMap<>();
+    private final int chunkSize;
+
+    public InMemoryWeatherRepository() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    public InMemoryWeatherRepository(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public Flux<WeatherReading> findByLocation(String location) {
+        return Flux.defer(() -> {
+            LocationColumns columns = index.get(location);
+            if (columns == null) {
+                return Flux.empty();
+            }
+            Cursor cursor = columns.cursor();
+            return Flux.generate(() -> cursor, (state, sink) -> {
+                if (state.hasNext()) {
+                    sink.next(state.next(location));
+                } else {
+                    sink.complete();
+                }
+                return state;
+            });
+        });
+    }
+
+    @Override
+    public Mono<WeatherReading> save(WeatherReading reading) {
+        return Mono.fromCallable(() -> {
+            index.computeIfAbsent(reading.getLocation(), location -> new LocationColumns(chunkSize))
+                    .append(reading);
+            return reading;
+        });
+    }
+
+    // One append per location, holding its lock once for all of that location's readings
+    @Override
+    public Mono<Void> saveAll(List<WeatherReading> readings) {
+        return Mono.fromRunnable(() -> {
+            Map<String, List<WeatherReading>> byLocation = new LinkedHashMap<>();
+            for (WeatherReading reading : readings) {
+                byLocation.computeIfAbsent(reading.getLocation(), location -> new ArrayList<>()).add(reading);
+            }
+            byLocation.forEach((location, group) ->
+                    index.computeIfAbsent(location, key -> new LocationColumns(chunkSize)).appendAll(group));
+        });
+    }
+
+    // Number of readings stored for a location
+    public long count(String location) {
+        LocationColumns columns = index.get(location);
+        return columns == null ? 0L : columns.cursor().remaining();
+    }
+
+    private static final class Chunk {
+        final double[] temperatures;
+        final double[] humidities;
+        final long[] timestamps;
+        // Written after the columns, so a reader that sees it sees the values
+        volatile int size;
+
+        Chunk(int capacity) {
+            temperatures = new double[capacity];
+            humidities = new double[capacity];
+            timestamps = new long[capacity];
+        }
+    }
+
+    private static final class LocationColumns {
+        private final int chunkSize;
+        // Replaced, never mutated in place, when a chunk is added
+        private volatile Chunk[] chunks = new Chunk[0];
+
+        LocationColumns(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        synchronized void appendAll(List<WeatherReading> readings) {
+            for (WeatherReading reading : readings) {
+                append(reading);
+            }
+        }
+
+        synchronized void append(WeatherReading reading) {
+            Chunk[] current = chunks;
+            Chunk last = current.length == 0 ? null : current[current.length - 1];
+            boolean grow = last == null || last.size == chunkSize;
+            Chunk target = grow ? new Chunk(chunkSize) : last;
+            int slot = target.size;
+            target.temperatures[slot] = reading.getTemperature();
+            target.humidities[slot] = reading.getHumidity();
+            target.timestamps[slot] = reading.getTimestamp();
+            target.size = slot + 1;
+            if (grow) {
+                Chunk[] updated = Arrays.copyOf(current, current.length + 1);
+                updated[current.length] = target;
+                chunks = updated;
+            }
+        }
+
+        // Every chunk but the last is full once published, so the snapshot
+        // only needs the chunk array and the size of its last chunk
+        Cursor cursor() {
+            Chunk[] snapshot = chunks;
+            int lastSize = snapshot.length == 0 ? 0 : snapshot[snapshot.length - 1].size;
+            return new Cursor(snapshot, lastSize);
+        }
+    }
+
+    private static final class Cursor {
+        private final Chunk[] chunks;
+        private final int lastSize;
+        private int chunk;
+        private int offset;
+
+        Cursor(Chunk[] chunks, int lastSize) {
+            this.chunks = chunks;
+            this.lastSize = lastSize;
+        }
+
+        boolean hasNext() {
+            return chunk < chunks.length && offset < limit(chunk);
+        }
+
+        WeatherReading next(String location) {
+            Chunk current = chunks[chunk];
+            WeatherReading reading = new WeatherReading(location, current.temperatures[offset],
+                    current.humidities[offset], current.timestamps[offset]);
+            if (++offset == limit(chunk)) {
+                chunk++;
+                offset = 0;
+            }
+            return reading;
+        }
+
+        long remaining() {
+            long total = 0;
+            for (int i = chunk; i < chunks.length; i++) {
+                total += limit(i);
+            }
+            return total - offset;
+        }
+
+        private int limit(int index) {
+            return index == chunks.length - 1 ? lastSize : chunks[index].temperatures.length;
+        }
+    }
+}
+
+class InMemoryWeatherRepositoryTest {
+
+    @Test
+    void findByLocationReturnsReadingsInSaveOrderAcrossChunks() {
+        InMemoryWeatherRepository repository = new InMemoryWeatherRepository(4);
+        for (int i = 0; i < 10; i++) {
+            repository.save(new WeatherReading("NYC", i, 50.0 + i, 1_000L + i)).block();
+        }
+        repository.save(new WeatherReading("LA", 30.0, 20.0, 1_000L)).block();
+
+        assertEquals(10, repository.count("NYC"));
+        StepVerifier.create(repository.findByLocation("NYC").map(WeatherReading::getTemperature))
+                .expectNext(0.0, 1.0, 2.0, 3.0, 4.0, 5.0, 6.0, 7.0, 8.0, 9.0)
+                .verifyComplete();
+        StepVerifier.create(repository.findByLocation("LA"))
+                .assertNext(reading -> {
+                    assertEquals("LA", reading.getLocation());
+                    assertEquals(20.0, reading.getHumidity());
+                    assertEquals(1_000L, reading.getTimestamp());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void findByLocationEmitsOnlyWhatIsRequested() {
+        InMemoryWeatherRepository repository = new InMemoryWeatherRepository(2);
+        for (int i = 0; i < 5; i++) {
+            repository.save(new WeatherReading("NYC", i, 0.0, i)).block();
+        }
+
+        StepVerifier.create(repository.findByLocation("NYC").map(WeatherReading::getTemperature), 0)
+                .expectSubscription()
+                .thenRequest(2)
+                .expectNext(0.0, 1.0)
+                .expectNoEvent(Duration.ofMillis(10))
+                .thenRequest(10)
+                .expectNext(2.0, 3.0, 4.0)
+                .verifyComplete();
+    }
+
+    @Test
+    void unknownLocationIsEmptyAndFeedsTheServiceAverage() {
+        InMemoryWeatherRepository repository = new InMemoryWeatherRepository();
+        WeatherService service = new WeatherService(repository);
+
+        StepVerifier.create(repository.findByLocation("Nowhere")).verifyComplete();
+
+        Flux.just(20.0, 21.0, 25.0)
+                .flatMap(t -> repository.save(new WeatherReading("NYC", t, 0.0, 0L)))
+                .blockLast();
+        StepVerifier.create(service.getAverageTemperature("NYC"))
+                .expectNext(22.0)
+                .verifyComplete();
+    }
+}
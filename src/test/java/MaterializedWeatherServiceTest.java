@@ -0,0 +1,367 @@
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// WeatherService that keeps running aggregates per location instead of
+// scanning: count, sums, min, max and the latest reading, plus per-minute and
+// per-hour buckets for a bounded window. The first lookup or save for a
+// location seeds its aggregates with one repository scan; from then on every
+// save() through this service updates them, so statistics and averages are
+// O(1) lookups. Readings written to the repository some other way after the
+// seeding scan are not reflected.
+//
+// The totals and each bucket are small immutable values swapped in with
+// compare-and-set, so a statistics read always sees a whole number of
+// readings. The latest reading is tracked separately.
+class MaterializedWeatherService extends WeatherService {
+    static final long MINUTE_MILLIS = 60_000L;
+    static final long HOUR_MILLIS = 60 * MINUTE_MILLIS;
+    static final int DEFAULT_MINUTE_BUCKETS = 60;
+    static final int DEFAULT_HOUR_BUCKETS = 48;
+
+    private final WeatherRepository repository;
+    private final int minuteBuckets;
+    private final int hourBuckets;
+    // Seeding scan per location, cached once it completes
+    private final ConcurrentMap<String, Mono<LocationAggregate>> aggregates = new ConcurrentHashMap<>();
+
+    MaterializedWeatherService(WeatherRepository repository) {
+        this(repository, DEFAULT_MINUTE_BUCKETS, DEFAULT_HOUR_BUCKETS);
+    }
+
+    // Keeps the given number of most recent minute and hour buckets per location
+    MaterializedWeatherService(WeatherRepository repository, int minuteBuckets, int hourBuckets) {
+        super(repository);
+        if (minuteBuckets <= 0 || hourBuckets <= 0) {
+            throw new IllegalArgumentException("Bucket retention must be positive");
+        }
+        this.repository = repository;
+        this.minuteBuckets = minuteBuckets;
+        this.hourBuckets = hourBuckets;
+    }
+
+    // Saves through the repository, then folds the reading into the aggregates.
+    // The write waits for the location's seeding scan, so the scan can never
+    // see a reading that is also folded in here.
+    Mono<WeatherReading> save(WeatherReading reading) {
+        return aggregate(reading.getLocation())
+                .flatMap(aggregate -> repository.save(reading).doOnNext(aggregate::add));
+    }
+
+    @Override
+    Mono<TemperatureStatistics> getStatistics(String location) {
+        return aggregate(location).map(LocationAggregate::statistics);
+    }
+
+    // Empty if the location has no readings
+    Mono<WeatherReading> getLastReading(String location) {
+        return aggregate(location).mapNotNull(aggregate -> aggregate.last.get());
+    }
+
+    // Retained minute buckets, oldest first, as (bucket start millis, statistics)
+    Flux<Tuple2<Long, TemperatureStatistics>> getMinuteStatistics(String location) {
+        return aggregate(location).flatMapIterable(aggregate -> aggregate.minutes.snapshot());
+    }
+
+    // Retained hour buckets, oldest first, as (bucket start millis, statistics)
+    Flux<Tuple2<Long, TemperatureStatistics>> getHourlyStatistics(String location) {
+        return aggregate(location).flatMapIterable(aggregate -> aggregate.hours.snapshot());
+    }
+
+    // Concurrent first callers share one scan; a failed scan is dropped so
+    // the next caller tries again
+    private Mono<LocationAggregate> aggregate(String location) {
+        return aggregates.computeIfAbsent(location, key -> repository.findByLocation(key)
+                .collect(() -> new LocationAggregate(minuteBuckets, hourBuckets), LocationAggregate::add)
+                .doOnError(error -> aggregates.remove(key))
+                .cache());
+    }
+
+    private static final class LocationAggregate {
+        // Null until the first reading
+        final AtomicReference<Bucket> totals = new AtomicReference<>();
+        final AtomicReference<WeatherReading> last = new AtomicReference<>();
+        final BucketRing minutes;
+        final BucketRing hours;
+
+        LocationAggregate(int minuteBuckets, int hourBuckets) {
+            this.minutes = new BucketRing(MINUTE_MILLIS, minuteBuckets);
+            this.hours = new BucketRing(HOUR_MILLIS, hourBuckets);
+        }
+
+        void add(WeatherReading reading) {
+            double temperature = reading.getTemperature();
+            for (;;) {
+                Bucket current = totals.get();
+                Bucket updated = current == null ? Bucket.first(0L, temperature) : current.plus(temperature);
+                if (totals.compareAndSet(current, updated)) {
+                    break;
+                }
+            }
+            // Latest by timestamp, not by arrival; ties go to the later save
+            last.accumulateAndGet(reading, (current, candidate) ->
+                    current == null || candidate.getTimestamp() >= current.getTimestamp() ? candidate : current);
+            minutes.add(reading.getTimestamp(), temperature);
+            hours.add(reading.getTimestamp(), temperature);
+        }
+
+        TemperatureStatistics statistics() {
+            Bucket snapshot = totals.get();
+            return snapshot == null ? new TemperatureStatistics() : snapshot.statistics();
+        }
+    }
+
+    // Fixed ring of time buckets; a slot is reused once its period falls out
+    // of the window, and readings older than the slot's current period are dropped
+    private static final class BucketRing {
+        private final long widthMillis;
+        private final AtomicReferenceArray<Bucket> slots;
+
+        BucketRing(long widthMillis, int size) {
+            this.widthMillis = widthMillis;
+            this.slots = new AtomicReferenceArray<>(size);
+        }
+
+        void add(long timestamp, double temperature) {
+            long period = Math.floorDiv(timestamp, widthMillis);
+            int slot = (int) Math.floorMod(period, (long) slots.length());
+            for (;;) {
+                Bucket current = slots.get(slot);
+                Bucket updated;
+                if (current == null || current.period < period) {
+                    updated = Bucket.first(period, temperature);
+                } else if (current.period == period) {
+                    updated = current.plus(temperature);
+                } else {
+                    return;
+                }
+                if (slots.compareAndSet(slot, current, updated)) {
+                    return;
+                }
+            }
+        }
+
+        List<Tuple2<Long, TemperatureStatistics>> snapshot() {
+            long newest = Long.MIN_VALUE;
+            Bucket[] buckets = new Bucket[slots.length()];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = slots.get(i);
+                if (buckets[i] != null) {
+                    newest = Math.max(newest, buckets[i].period);
+                }
+            }
+            List<Tuple2<Long, TemperatureStatistics>> result = new ArrayList<>();
+            if (newest == Long.MIN_VALUE) {
+                return result;
+            }
+            // Walk the window oldest first, skipping slots still holding an older period
+            for (long period = newest - buckets.length + 1; period <= newest; period++) {
+                Bucket bucket = buckets[(int) Math.floorMod(period, (long) buckets.length)];
+                if (bucket != null && bucket.period == period) {
+                    result.add(Tuples.of(period * widthMillis, bucket.statistics()));
+                }
+            }
+            return result;
+        }
+    }
+
+    // Count, sums, min and max of the readings in one period, or of all of
+    // them for the totals. Sums are of (temperature - shift), with the first
+    // reading as the shift; see TemperatureStatistics.fromMoments.
+    private static final class Bucket {
+        final long period;
+        final double shift;
+        final long count;
+        final double sum;
+        final double sumOfSquares;
+        final double min;
+        final double max;
+
+        private Bucket(long period, double shift, long count, double sum, double sumOfSquares,
+                       double min, double max) {
+            this.period = period;
+            this.shift = shift;
+            this.count = count;
+            this.sum = sum;
+            this.sumOfSquares = sumOfSquares;
+            this.min = min;
+            this.max = max;
+        }
+
+        static Bucket first(long period, double temperature) {
+            return new Bucket(period, temperature, 1, 0.0, 0.0, temperature, temperature);
+        }
+
+        Bucket plus(double temperature) {
+            double shifted = temperature - shift;
+            return new Bucket(period, shift, count + 1, sum + shifted, sumOfSquares + shifted * shifted,
+                    Math.min(min, temperature), Math.max(max, temperature));
+        }
+
+        TemperatureStatistics statistics() {
+            return TemperatureStatistics.fromMoments(count, shift, sum, sumOfSquares, min, max);
+        }
+    }
+}
+
+class MaterializedWeatherServiceTest {
+
+    private static WeatherReading reading(String location, double temperature, long timestamp) {
+        return new WeatherReading(location, temperature, 50.0, timestamp);
+    }
+
+    // Counts findByLocation() scans
+    static class CountingRepository extends InMemoryWeatherRepository {
+        final AtomicInteger scans = new AtomicInteger();
+
+        @Override
+        public Flux<WeatherReading> findByLocation(String location) {
+            return Flux.defer(() -> {
+                scans.incrementAndGet();
+                return super.findByLocation(location);
+            });
+        }
+    }
+
+    @Test
+    void statisticsComeFromTheAggregatesAfterOneSeedingScan() {
+        CountingRepository repository = new CountingRepository();
+        MaterializedWeatherService service = new MaterializedWeatherService(repository);
+
+        Flux.just(20.0, 22.0, 27.0)
+                .concatMap(t -> service.save(reading("NYC", t, t.longValue())))
+                .blockLast();
+
+        StepVerifier.create(service.getAverageTemperature("NYC")).expectNext(23.0).verifyComplete();
+        StepVerifier.create(service.getStatistics("NYC"))
+                .assertNext(statistics -> {
+                    assertEquals(3, statistics.getCount());
+                    assertEquals(26.0 / 3, statistics.getVariance(), 1e-9);
+                    assertEquals(20.0, statistics.getMin());
+                    assertEquals(27.0, statistics.getMax());
+                })
+                .verifyComplete();
+        StepVerifier.create(service.getLastReading("NYC").map(WeatherReading::getTemperature))
+                .expectNext(27.0)
+                .verifyComplete();
+        StepVerifier.create(service.getAverageTemperature("Nowhere")).expectNext(0.0).verifyComplete();
+        StepVerifier.create(service.getLastReading("Nowhere")).verifyComplete();
+        assertEquals(2, repository.scans.get());
+    }
+
+    @Test
+    void readingsAlreadyInTheRepositoryAreCounted() {
+        InMemoryWeatherRepository repository = new InMemoryWeatherRepository();
+        repository.save(reading("Oslo", -4.0, 0L)).block();
+        repository.save(reading("Oslo", 2.0, 1L)).block();
+        MaterializedWeatherService service = new MaterializedWeatherService(repository);
+
+        StepVerifier.create(service.getAverageTemperature("Oslo")).expectNext(-1.0).verifyComplete();
+        service.save(reading("Oslo", 5.0, 2L)).block();
+        StepVerifier.create(service.getStatistics("Oslo"))
+                .assertNext(statistics -> {
+                    assertEquals(3, statistics.getCount());
+                    assertEquals(1.0, statistics.getMean(), 1e-9);
+                    assertEquals(-4.0, statistics.getMin());
+                })
+                .verifyComplete();
+
+        // Seeded by the first save just the same
+        repository.save(reading("Lima", 19.0, 0L)).block();
+        service.save(reading("Lima", 21.0, 1L)).block();
+        StepVerifier.create(service.getAverageTemperature("Lima")).expectNext(20.0).verifyComplete();
+        assertEquals(2, repository.count("Lima"));
+    }
+
+    @Test
+    void statisticsNeverMixTwoUpdates() throws InterruptedException {
+        MaterializedWeatherService service = new MaterializedWeatherService(new InMemoryWeatherRepository());
+        // With 0.0 as the first reading and 1.0 after it, the mean is always (count - 1) / count
+        service.save(reading("NYC", 0.0, 0L)).block();
+        AtomicReference<String> torn = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                TemperatureStatistics statistics = service.getStatistics("NYC").block();
+                long count = statistics.getCount();
+                if (Math.abs(statistics.getMean() * count - (count - 1)) > 1e-6) {
+                    torn.compareAndSet(null, count + " readings with mean " + statistics.getMean());
+                }
+            }
+        });
+        reader.start();
+
+        Flux.range(1, 20_000)
+                .parallel(4)
+                .runOn(Schedulers.parallel())
+                .flatMap(i -> service.save(reading("NYC", 1.0, i)))
+                .sequential()
+                .blockLast();
+        reader.interrupt();
+        reader.join();
+
+        assertNull(torn.get());
+        assertEquals(20_001, service.getStatistics("NYC").block().getCount());
+    }
+
+    @Test
+    void concurrentSavesAreAllCounted() {
+        MaterializedWeatherService service = new MaterializedWeatherService(new InMemoryWeatherRepository());
+
+        Flux.range(0, 10_000)
+                .parallel(8)
+                .runOn(Schedulers.parallel())
+                .flatMap(i -> service.save(reading("NYC", i % 2 == 0 ? 10.0 : 20.0, i)))
+                .sequential()
+                .blockLast();
+
+        TemperatureStatistics statistics = service.getStatistics("NYC").block();
+        assertEquals(10_000, statistics.getCount());
+        assertEquals(15.0, statistics.getMean(), 1e-9);
+        assertEquals(25.0, statistics.getVariance(), 1e-9);
+    }
+
+    @Test
+    void minuteBucketsKeepOnlyTheRetainedWindow() {
+        MaterializedWeatherService service = new MaterializedWeatherService(new InMemoryWeatherRepository(), 3, 2);
+        long minute = MaterializedWeatherService.MINUTE_MILLIS;
+
+        for (int m = 0; m < 5; m++) {
+            service.save(reading("NYC", m, m * minute)).block();
+            service.save(reading("NYC", m + 1, m * minute + 1_000)).block();
+        }
+        // Too old for the window by now
+        service.save(reading("NYC", 100.0, 0L)).block();
+
+        StepVerifier.create(service.getMinuteStatistics("NYC"))
+                .assertNext(bucket -> {
+                    assertEquals(2 * minute, bucket.getT1());
+                    assertEquals(2.5, bucket.getT2().getMean(), 1e-9);
+                })
+                .assertNext(bucket -> assertEquals(3 * minute, bucket.getT1()))
+                .assertNext(bucket -> {
+                    assertEquals(4 * minute, bucket.getT1());
+                    assertEquals(2, bucket.getT2().getCount());
+                    assertEquals(5.0, bucket.getT2().getMax());
+                })
+                .verifyComplete();
+        StepVerifier.create(service.getHourlyStatistics("NYC"))
+                .assertNext(bucket -> {
+                    assertEquals(0L, bucket.getT1());
+                    assertEquals(11, bucket.getT2().getCount());
+                })
+                .verifyComplete();
+    }
+}
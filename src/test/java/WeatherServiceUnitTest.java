@@ -7,8 +7,10 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.util.List;
 import java.util.Objects;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.when;
 
 class Tuple2<T1, T2> {
@@ -81,11 +83,63 @@ class WeatherServiceUnitTest {
                 .expectNext(22.5) // (22.5 + 23.5 + 21.5) / 3 = 22.5
                 .verifyComplete();
     }
+
+    @Test
+    void testGetAverageTemperatureWithoutReadings() {
+        when(repository.findByLocation("Nowhere")).thenReturn(Flux.empty());
+
+        StepVerifier.create(weatherService.getAverageTemperature("Nowhere"))
+                .expectNext(0.0)
+                .verifyComplete();
+    }
+
+    @Test
+    void testGetStatistics() {
+        long now = System.currentTimeMillis();
+        when(repository.findByLocation("NYC")).thenReturn(Flux.just(
+                new WeatherReading("NYC", 20.0, 60.0, now),
+                new WeatherReading("NYC", 22.0, 60.0, now),
+                new WeatherReading("NYC", 27.0, 60.0, now)));
+
+        StepVerifier.create(weatherService.getStatistics("NYC"))
+                .assertNext(statistics -> {
+                    assertEquals(3, statistics.getCount());
+                    assertEquals(23.0, statistics.getMean(), 1e-9);
+                    assertEquals(26.0 / 3, statistics.getVariance(), 1e-9);
+                    assertEquals(20.0, statistics.getMin());
+                    assertEquals(27.0, statistics.getMax());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testCombinedStatisticsMatchASinglePass() {
+        TemperatureStatistics all = new TemperatureStatistics();
+        TemperatureStatistics left = new TemperatureStatistics();
+        TemperatureStatistics right = new TemperatureStatistics();
+        for (int i = 0; i < 1_000; i++) {
+            double temperature = 1e6 + Math.sin(i) * 5;
+            all.accept(temperature);
+            (i < 300 ? left : right).accept(temperature);
+        }
+
+        left.combine(right).combine(new TemperatureStatistics());
+        assertEquals(all.getCount(), left.getCount());
+        assertEquals(all.getMean(), left.getMean(), 1e-6);
+        assertEquals(all.getVariance(), left.getVariance(), 1e-6);
+        assertEquals(all.getMin(), left.getMin());
+        assertEquals(all.getMax(), left.getMax());
+    }
 }
 
 interface WeatherRepository {
     Flux<WeatherReading> findByLocation(String location);
     Mono<WeatherReading> save(WeatherReading reading);
+
+    // Stores readings in order; stores that can append in bulk should override this
+    default Mono<Void> saveAll(List<WeatherReading> readings) {
+        return Flux.fromIterable(readings).concatMap(this::save).then();
+    }
 }
 
 class WeatherReading {
@@ -125,19 +179,97 @@ class WeatherService {
         this.repository = repository;
     }
 
-    // Get average temperature for a location
+    // Get average temperature for a location, or 0.0 if it has no readings
     Mono<Double> getAverageTemperature(String location) {
+        return getStatistics(location).map(TemperatureStatistics::getMean);
+    }
+
+    // Count, mean, variance, min and max in one pass; readings are folded in
+    // as they arrive, so memory stays constant however long the history is
+    Mono<TemperatureStatistics> getStatistics(String location) {
         return repository.findByLocation(location)
-                .map(WeatherReading::getTemperature)
-                .collectList()
-                .map(temperatures -> {
-                    if (temperatures.isEmpty()) {
-                        return 0.0;
-                    }
-                    return temperatures.stream()
-                            .mapToDouble(Double::doubleValue)
-                            .average()
-                            .orElse(0.0);
-                });
+                .collect(TemperatureStatistics::new,
+                        (statistics, reading) -> statistics.accept(reading.getTemperature()));
+    }
+}
+
+// Running temperature statistics using Welford's update, which stays
+// accurate where summing squares would cancel. combine() merges partial
+// results, e.g. from shards of a repository, with Chan's formula.
+class TemperatureStatistics {
+    private long count;
+    private double mean;
+    // Sum of squared differences from the mean
+    private double m2;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public void accept(double temperature) {
+        count++;
+        double delta = temperature - mean;
+        mean += delta / count;
+        m2 += delta * (temperature - mean);
+        min = Math.min(min, temperature);
+        max = Math.max(max, temperature);
+    }
+
+    // Rebuilds statistics from running sums of (temperature - shift) and its
+    // square. Shifting by a typical value, e.g. the first reading, keeps the
+    // sum of squares from cancelling when the variance is small.
+    static TemperatureStatistics fromMoments(long count, double shift, double shiftedSum,
+                                             double shiftedSumOfSquares, double min, double max) {
+        TemperatureStatistics statistics = new TemperatureStatistics();
+        if (count > 0) {
+            statistics.count = count;
+            statistics.mean = shift + shiftedSum / count;
+            statistics.m2 = Math.max(0.0, shiftedSumOfSquares - shiftedSum * shiftedSum / count);
+            statistics.min = min;
+            statistics.max = max;
+        }
+        return statistics;
+    }
+
+    public TemperatureStatistics combine(TemperatureStatistics other) {
+        if (other.count == 0) {
+            return this;
+        }
+        if (count == 0) {
+            count = other.count;
+            mean = other.mean;
+            m2 = other.m2;
+            min = other.min;
+            max = other.max;
+            return this;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        count = total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    // 0.0 when there are no readings
+    public double getMean() {
+        return count == 0 ? 0.0 : mean;
+    }
+
+    // Population variance; 0.0 when there are no readings
+    public double getVariance() {
+        return count == 0 ? 0.0 : m2 / count;
+    }
+
+    public double getMin() {
+        return count == 0 ? 0.0 : min;
+    }
+
+    public double getMax() {
+        return count == 0 ? 0.0 : max;
     }
 }
\ No newline at end of file
@@ -0,0 +1,261 @@
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Write-behind decorator that coalesces save() calls into batches handed to
+// the delegate's saveAll(). A batch is flushed once it holds maxBatchSize
+// readings or maxDelay after its first reading arrived, whichever comes
+// first. Each caller's Mono completes when the batch holding its reading is
+// committed, or fails with the batch's error. Until then the reading is not
+// visible through findByLocation().
+class WriteBehindWeatherRepository implements WeatherRepository {
+    private final WeatherRepository delegate;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final Scheduler scheduler;
+    private final Object lock = new Object();
+    // Guarded by lock
+    private List<PendingSave> batch = new ArrayList<>();
+    private Disposable flushTimer;
+
+    private final LongAdder batchCount = new LongAdder();
+    private final LongAdder savedCount = new LongAdder();
+    private final LongAdder flushNanos = new LongAdder();
+    private final AtomicLong maxBatch = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+
+    public WriteBehindWeatherRepository(WeatherRepository delegate, int maxBatchSize, Duration maxDelay) {
+        this(delegate, maxBatchSize, maxDelay, Schedulers.parallel());
+    }
+
+    public WriteBehindWeatherRepository(WeatherRepository delegate, int maxBatchSize, Duration maxDelay,
+                                        Scheduler scheduler) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.delegate = delegate;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public Flux<WeatherReading> findByLocation(String location) {
+        return delegate.findByLocation(location);
+    }
+
+    @Override
+    public Mono<WeatherReading> save(WeatherReading reading) {
+        return Mono.create(sink -> enqueue(new PendingSave(reading, sink)));
+    }
+
+    // Flush whatever is pending now instead of waiting for size or time
+    public void flush() {
+        List<PendingSave> ready;
+        synchronized (lock) {
+            ready = takeBatch();
+        }
+        write(ready);
+    }
+
+    private void enqueue(PendingSave save) {
+        List<PendingSave> ready = null;
+        synchronized (lock) {
+            batch.add(save);
+            if (batch.size() >= maxBatchSize) {
+                ready = takeBatch();
+            } else if (batch.size() == 1) {
+                List<PendingSave> scheduled = batch;
+                flushTimer = scheduler.schedule(() -> flushIfCurrent(scheduled),
+                        maxDelayNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        // Written outside the lock so a slow store does not block other callers
+        write(ready);
+    }
+
+    private void flushIfCurrent(List<PendingSave> scheduled) {
+        List<PendingSave> ready = null;
+        synchronized (lock) {
+            // The batch may already have been flushed by size
+            if (batch == scheduled) {
+                ready = takeBatch();
+            }
+        }
+        write(ready);
+    }
+
+    // Guarded by lock; returns null when nothing is pending
+    private List<PendingSave> takeBatch() {
+        if (flushTimer != null) {
+            flushTimer.dispose();
+            flushTimer = null;
+        }
+        if (batch.isEmpty()) {
+            return null;
+        }
+        List<PendingSave> ready = batch;
+        batch = new ArrayList<>();
+        return ready;
+    }
+
+    private void write(List<PendingSave> ready) {
+        if (ready == null) {
+            return;
+        }
+        List<WeatherReading> readings = new ArrayList<>(ready.size());
+        for (PendingSave save : ready) {
+            readings.add(save.reading);
+        }
+        long start = System.nanoTime();
+        delegate.saveAll(readings).subscribe(
+                null,
+                error -> {
+                    for (PendingSave save : ready) {
+                        save.sink.error(error);
+                    }
+                },
+                () -> {
+                    record(ready.size(), System.nanoTime() - start);
+                    for (PendingSave save : ready) {
+                        save.sink.success(save.reading);
+                    }
+                });
+    }
+
+    private void record(int size, long nanos) {
+        batchCount.increment();
+        savedCount.add(size);
+        flushNanos.add(nanos);
+        maxBatch.accumulateAndGet(size, Math::max);
+        maxFlushNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    // Committed batches
+    public long getBatchCount() {
+        return batchCount.sum();
+    }
+
+    // Readings committed, over all batches
+    public long getSavedCount() {
+        return savedCount.sum();
+    }
+
+    public double getAverageBatchSize() {
+        long batches = batchCount.sum();
+        return batches == 0 ? 0.0 : (double) savedCount.sum() / batches;
+    }
+
+    public long getMaxBatchSize() {
+        return maxBatch.get();
+    }
+
+    // Time from handing a batch to the delegate until it committed
+    public Duration getAverageFlushLatency() {
+        long batches = batchCount.sum();
+        return batches == 0 ? Duration.ZERO : Duration.ofNanos(flushNanos.sum() / batches);
+    }
+
+    public Duration getMaxFlushLatency() {
+        return Duration.ofNanos(maxFlushNanos.get());
+    }
+
+    private static final class PendingSave {
+        final WeatherReading reading;
+        final MonoSink<WeatherReading> sink;
+
+        PendingSave(WeatherReading reading, MonoSink<WeatherReading> sink) {
+            this.reading = reading;
+            this.sink = sink;
+        }
+    }
+}
+
+class WriteBehindWeatherRepositoryTest {
+
+    // Records the size of every bulk write before storing it
+    static class RecordingRepository extends InMemoryWeatherRepository {
+        final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Mono<Void> saveAll(List<WeatherReading> readings) {
+            batchSizes.add(readings.size());
+            return super.saveAll(readings);
+        }
+    }
+
+    private static WeatherReading reading(double temperature) {
+        return new WeatherReading("NYC", temperature, 50.0, 0L);
+    }
+
+    @Test
+    void savesAreCoalescedBySizeThenByTime() {
+        RecordingRepository store = new RecordingRepository();
+        WriteBehindWeatherRepository repository =
+                new WriteBehindWeatherRepository(store, 4, Duration.ofMillis(50));
+
+        StepVerifier.create(Flux.range(0, 10).flatMap(i -> repository.save(reading(i))))
+                .expectNextCount(10)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        assertEquals(List.of(4, 4, 2), store.batchSizes);
+        assertEquals(10, store.count("NYC"));
+        assertEquals(3, repository.getBatchCount());
+        assertEquals(10, repository.getSavedCount());
+        assertEquals(4, repository.getMaxBatchSize());
+        assertEquals(10.0 / 3, repository.getAverageBatchSize(), 1e-9);
+    }
+
+    @Test
+    void flushCommitsAPartialBatchImmediately() {
+        RecordingRepository store = new RecordingRepository();
+        WriteBehindWeatherRepository repository =
+                new WriteBehindWeatherRepository(store, 100, Duration.ofHours(1));
+
+        List<WeatherReading> saved = new CopyOnWriteArrayList<>();
+        repository.save(reading(1.0)).subscribe(saved::add);
+        repository.save(reading(2.0)).subscribe(saved::add);
+        assertTrue(saved.isEmpty());
+
+        repository.flush();
+        assertEquals(2, saved.size());
+        assertEquals(List.of(2), store.batchSizes);
+    }
+
+    @Test
+    void aFailedBatchFailsEveryCallerInIt() {
+        WeatherRepository failing = new InMemoryWeatherRepository() {
+            @Override
+            public Mono<Void> saveAll(List<WeatherReading> readings) {
+                return Mono.error(new IllegalStateException("store unavailable"));
+            }
+        };
+        WriteBehindWeatherRepository repository =
+                new WriteBehindWeatherRepository(failing, 2, Duration.ofHours(1));
+
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+        repository.save(reading(1.0)).subscribe(null, errors::add);
+        repository.save(reading(2.0)).subscribe(null, errors::add);
+
+        assertEquals(2, errors.size());
+        assertTrue(errors.get(0) instanceof IllegalStateException);
+        assertEquals(0, repository.getBatchCount());
+    }
+}
@@ -0,0 +1,54 @@
+package com.reactive.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChangeSuppressionTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    void absoluteDeadbandComparesAgainstLastNotifiedValue() {
+        ChangeSuppression policy = ChangeSuppression.onChange().withAbsoluteDeadband(0.5);
+        ChangeSuppression.Tracker tracker = new ChangeSuppression.Tracker();
+
+        assertTrue(tracker.shouldNotify(policy, 20.0, 0));
+        assertFalse(tracker.shouldNotify(policy, 20.3, 1));
+        // Drift adds up against 20.0, not against the suppressed 20.3
+        assertFalse(tracker.shouldNotify(policy, 20.5, 2));
+        assertTrue(tracker.shouldNotify(policy, 20.6, 3));
+        assertEquals(2, tracker.getSuppressedCount());
+    }
+
+    @Test
+    void relativeDeadbandScalesWithTheLastValue() {
+        ChangeSuppression policy = ChangeSuppression.onChange().withRelativeDeadband(0.01);
+        ChangeSuppression.Tracker tracker = new ChangeSuppression.Tracker();
+
+        assertTrue(tracker.shouldNotify(policy, 100.0, 0));
+        assertFalse(tracker.shouldNotify(policy, 100.9, 1));
+        assertTrue(tracker.shouldNotify(policy, 101.5, 2));
+    }
+
+    @Test
+    void minIntervalAndHeartbeatUseElapsedTime() {
+        ChangeSuppression policy = ChangeSuppression.onChange()
+                .withAbsoluteDeadband(1.0)
+                .withMinInterval(Duration.ofMillis(10))
+                .withHeartbeat(Duration.ofMillis(100));
+        ChangeSuppression.Tracker tracker = new ChangeSuppression.Tracker();
+
+        assertTrue(tracker.shouldNotify(policy, 0.0, 0));
+        // Large change, but too soon
+        assertFalse(tracker.shouldNotify(policy, 5.0, 5 * MS));
+        assertTrue(tracker.shouldNotify(policy, 5.0, 10 * MS));
+        // Inside the dead-band until the heartbeat is due
+        assertFalse(tracker.shouldNotify(policy, 5.1, 50 * MS));
+        assertTrue(tracker.shouldNotify(policy, 5.1, 110 * MS));
+    }
+}
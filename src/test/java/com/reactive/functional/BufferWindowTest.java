@@ -0,0 +1,187 @@
+package com.reactive.functional;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BufferWindowTest {
+
+    @Test
+    void countBufferTurnsDemandForListsIntoDemandForItems() {
+        FunctionalPublisher<Integer> source = new FunctionalPublisher<>();
+        FunctionalPublisherTest.RecordingSubscriber<List<Integer>> subscriber =
+                new FunctionalPublisherTest.RecordingSubscriber<>(2);
+        source.buffer(3).subscribe(subscriber);
+
+        for (int i = 0; i < 10; i++) {
+            source.emit(i);
+        }
+        source.complete();
+        assertEquals(List.of(List.of(0, 1, 2), List.of(3, 4, 5)), subscriber.items);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(List.of(List.of(0, 1, 2), List.of(3, 4, 5), List.of(6, 7, 8), List.of(9)), subscriber.items);
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    void timedBufferBatchesByPeriod() throws InterruptedException {
+        FunctionalPublisher<Integer> source = new FunctionalPublisher<>();
+        ParallelPublisherTest.CollectingSubscriber<List<Integer>> subscriber =
+                new ParallelPublisherTest.CollectingSubscriber<>(Long.MAX_VALUE);
+        source.buffer(Duration.ofMillis(20)).subscribe(subscriber);
+
+        source.emit(1);
+        source.emit(2);
+        Thread.sleep(60);
+        source.emit(3);
+        source.complete();
+
+        assertTrue(subscriber.terminated.await(1, TimeUnit.SECONDS));
+        assertNull(subscriber.error);
+        assertEquals(List.of(List.of(1, 2), List.of(3)), subscriber.items);
+    }
+
+    @Test
+    void timedBatchesAreDeliveredOffTheTimerThread() throws InterruptedException {
+        HashedWheelTimer timer = new HashedWheelTimer();
+        try {
+            FunctionalPublisher<Integer> source = new FunctionalPublisher<>();
+            List<Thread> threads = new CopyOnWriteArrayList<>();
+            ParallelPublisherTest.CollectingSubscriber<List<Integer>> subscriber =
+                    new ParallelPublisherTest.CollectingSubscriber<>(Long.MAX_VALUE) {
+                        @Override
+                        public void onNext(List<Integer> batch) {
+                            threads.add(Thread.currentThread());
+                            super.onNext(batch);
+                        }
+                    };
+            BufferPublisher.ofDuration(source, Duration.ofMillis(10), timer).subscribe(subscriber);
+
+            source.emit(1);
+            Thread.sleep(50);
+            source.complete();
+
+            assertTrue(subscriber.terminated.await(1, TimeUnit.SECONDS));
+            assertEquals(List.of(List.of(1)), subscriber.items);
+            assertEquals(1, threads.size());
+            assertFalse(threads.get(0).getName().equals("wheel-timer"));
+        } finally {
+            timer.shutdown();
+        }
+    }
+
+    @Test
+    void nonPositivePeriodsAreRejectedWhenTheOperatorIsBuilt() {
+        FunctionalPublisher<Integer> source = new FunctionalPublisher<>();
+        assertThrows(IllegalArgumentException.class, () -> source.buffer(Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> source.window(Duration.ofMillis(-1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new FunctionalDoublePublisher().windowStats(Duration.ZERO));
+    }
+
+    @Test
+    void overlappingCountWindows() {
+        FunctionalPublisher<Integer> source = new FunctionalPublisher<>();
+        List<List<Integer>> windows = new ArrayList<>();
+        FunctionalPublisherTest.RecordingSubscriber<FunctionalPublisher<Integer>> subscriber =
+                new FunctionalPublisherTest.RecordingSubscriber<>(Long.MAX_VALUE) {
+                    @Override
+                    public void onNext(FunctionalPublisher<Integer> window) {
+                        FunctionalPublisherTest.RecordingSubscriber<Integer> inner =
+                                new FunctionalPublisherTest.RecordingSubscriber<>(Long.MAX_VALUE);
+                        window.subscribe(inner);
+                        windows.add(inner.items);
+                    }
+                };
+        source.window(3, 2).subscribe(subscriber);
+
+        for (int i = 0; i < 7; i++) {
+            source.emit(i);
+        }
+        source.complete();
+
+        assertEquals(List.of(List.of(0, 1, 2), List.of(2, 3, 4), List.of(4, 5, 6), List.of(6)), windows);
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    void windowReplaysItemsToALateFirstSubscriber() {
+        FunctionalPublisher<Integer> source = new FunctionalPublisher<>();
+        FunctionalPublisherTest.RecordingSubscriber<FunctionalPublisher<Integer>> subscriber =
+                new FunctionalPublisherTest.RecordingSubscriber<>(Long.MAX_VALUE);
+        source.window(2, 2).subscribe(subscriber);
+
+        for (int i = 0; i < 4; i++) {
+            source.emit(i);
+        }
+
+        FunctionalPublisherTest.RecordingSubscriber<Integer> inner =
+                new FunctionalPublisherTest.RecordingSubscriber<>(Long.MAX_VALUE);
+        subscriber.items.get(1).subscribe(inner);
+        assertEquals(List.of(2, 3), inner.items);
+        assertTrue(inner.completed);
+    }
+
+    @Test
+    void timedWindowsCoverEveryItem() throws InterruptedException {
+        FunctionalPublisher<Integer> source = new FunctionalPublisher<>();
+        ParallelPublisherTest.CollectingSubscriber<FunctionalPublisher<Integer>> subscriber =
+                new ParallelPublisherTest.CollectingSubscriber<>(Long.MAX_VALUE);
+        source.window(Duration.ofMillis(20)).subscribe(subscriber);
+
+        source.emit(1);
+        Thread.sleep(60);
+        source.emit(2);
+        source.emit(3);
+        source.complete();
+        assertTrue(subscriber.terminated.await(1, TimeUnit.SECONDS));
+
+        List<List<Integer>> windows = new ArrayList<>();
+        for (FunctionalPublisher<Integer> window : subscriber.items) {
+            FunctionalPublisherTest.RecordingSubscriber<Integer> inner =
+                    new FunctionalPublisherTest.RecordingSubscriber<>(Long.MAX_VALUE);
+            window.subscribe(inner);
+            assertTrue(inner.completed);
+            windows.add(inner.items);
+        }
+        // A tick may land between the last two emits, so only the first boundary is fixed
+        assertEquals(List.of(1), windows.get(0));
+        assertEquals(List.of(1, 2, 3), windows.stream().flatMap(List::stream).toList());
+    }
+
+    @Test
+    void windowStatsSummarizesEachWindow() {
+        FunctionalDoublePublisher source = new FunctionalDoublePublisher();
+        FunctionalPublisherTest.RecordingSubscriber<WindowStats> subscriber =
+                new FunctionalPublisherTest.RecordingSubscriber<>(Long.MAX_VALUE);
+        source.windowStats(3).subscribe(subscriber);
+
+        for (double value : new double[] {20.0, 25.0, 15.0, 30.0, 10.0}) {
+            source.emit(value);
+        }
+        source.complete();
+
+        assertEquals(2, subscriber.items.size());
+        WindowStats first = subscriber.items.get(0);
+        assertEquals(3, first.getCount());
+        assertEquals(15.0, first.getMin());
+        assertEquals(25.0, first.getMax());
+        assertEquals(20.0, first.getMean(), 1e-9);
+        WindowStats last = subscriber.items.get(1);
+        assertEquals(2, last.getCount());
+        assertEquals(10.0, last.getMin());
+        assertEquals(30.0, last.getMax());
+        assertTrue(subscriber.completed);
+    }
+}
@@ -0,0 +1,176 @@
+package com.reactive.functional;
+
+import com.reactive.functional.BufferedPublisher.OverflowStrategy;
+import com.reactive.functional.FunctionalPublisherTest.RecordingSubscriber;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BufferedPublisherTest {
+
+    @Test
+    void everySubscriberSeesEveryItem() {
+        BufferedPublisher<Integer> publisher = new BufferedPublisher<>(4);
+        RecordingSubscriber<Integer> first = new RecordingSubscriber<>(Long.MAX_VALUE);
+        RecordingSubscriber<Integer> second = new RecordingSubscriber<>(2);
+        publisher.subscribe(first);
+        publisher.subscribe(second);
+
+        for (int i = 1; i <= 3; i++) {
+            publisher.publish(i);
+        }
+        assertEquals(List.of(1, 2, 3), first.items);
+        assertEquals(List.of(1, 2), second.items);
+
+        second.subscription.request(1);
+        assertEquals(List.of(1, 2, 3), second.items);
+    }
+
+    @Test
+    void dropLatestDiscardsNewItemsWhenFull() {
+        BufferedPublisher<Integer> publisher = new BufferedPublisher<>(2, OverflowStrategy.DROP_LATEST);
+        RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>(0);
+        publisher.subscribe(subscriber);
+
+        assertTrue(publisher.publish(1));
+        assertTrue(publisher.publish(2));
+        assertFalse(publisher.publish(3));
+
+        subscriber.subscription.request(10);
+        assertEquals(List.of(1, 2), subscriber.items);
+        assertEquals(1, publisher.getDroppedCount(OverflowStrategy.DROP_LATEST));
+    }
+
+    @Test
+    void dropOldestAdvancesLaggingCursor() {
+        BufferedPublisher<Integer> publisher = new BufferedPublisher<>(2, OverflowStrategy.DROP_OLDEST);
+        RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>(0);
+        publisher.subscribe(subscriber);
+
+        for (int i = 1; i <= 5; i++) {
+            publisher.publish(i);
+        }
+
+        subscriber.subscription.request(10);
+        assertEquals(List.of(4, 5), subscriber.items);
+        assertEquals(3, publisher.getDroppedCount(OverflowStrategy.DROP_OLDEST));
+    }
+
+    @Test
+    void fullnessFollowsTheSlowestRemainingSubscriber() {
+        BufferedPublisher<Integer> publisher = new BufferedPublisher<>(2, OverflowStrategy.DROP_LATEST);
+        RecordingSubscriber<Integer> slow = new RecordingSubscriber<>(0);
+        RecordingSubscriber<Integer> fast = new RecordingSubscriber<>(Long.MAX_VALUE);
+        publisher.subscribe(slow);
+        publisher.subscribe(fast);
+
+        assertTrue(publisher.publish(1));
+        assertTrue(publisher.publish(2));
+        assertFalse(publisher.publish(3));
+
+        slow.subscription.request(1);
+        assertTrue(publisher.publish(4));
+        assertFalse(publisher.publish(5));
+
+        slow.subscription.cancel();
+        // Well past the ring size, so cursor positions wrap around
+        for (int i = 6; i <= 20; i++) {
+            assertTrue(publisher.publish(i));
+        }
+        assertEquals(List.of(1, 2, 4), fast.items.subList(0, 3));
+        assertEquals(18, fast.items.size());
+    }
+
+    @Test
+    void invalidRequestReleasesTheSubscribersCursor() {
+        BufferedPublisher<Integer> publisher = new BufferedPublisher<>(2, OverflowStrategy.DROP_LATEST);
+        RecordingSubscriber<Integer> invalid = new RecordingSubscriber<>(0);
+        RecordingSubscriber<Integer> healthy = new RecordingSubscriber<>(Long.MAX_VALUE);
+        publisher.subscribe(invalid);
+        publisher.subscribe(healthy);
+
+        invalid.subscription.request(0);
+        for (int i = 1; i <= 10; i++) {
+            assertTrue(publisher.publish(i));
+        }
+
+        assertInstanceOf(IllegalArgumentException.class, invalid.error);
+        assertTrue(invalid.items.isEmpty());
+        assertEquals(10, healthy.items.size());
+    }
+
+    @Test
+    void blockGivesUpAfterTimeout() {
+        BufferedPublisher<Integer> publisher =
+                new BufferedPublisher<>(1, OverflowStrategy.BLOCK, Duration.ofMillis(20));
+        RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>(0);
+        publisher.subscribe(subscriber);
+
+        assertTrue(publisher.publish(1));
+        assertFalse(publisher.publish(2));
+        assertEquals(1, publisher.getDroppedCount(OverflowStrategy.BLOCK));
+    }
+
+    @Test
+    void errorTerminatesOnlyLaggingSubscribers() {
+        BufferedPublisher<Integer> publisher = new BufferedPublisher<>(2, OverflowStrategy.ERROR);
+        RecordingSubscriber<Integer> slow = new RecordingSubscriber<>(0);
+        RecordingSubscriber<Integer> fast = new RecordingSubscriber<>(Long.MAX_VALUE);
+        publisher.subscribe(slow);
+        publisher.subscribe(fast);
+
+        for (int i = 1; i <= 3; i++) {
+            publisher.publish(i);
+        }
+
+        assertInstanceOf(IllegalStateException.class, slow.error);
+        assertEquals(List.of(1, 2, 3), fast.items);
+        assertEquals(1, publisher.getDroppedCount(OverflowStrategy.ERROR));
+    }
+
+    @Test
+    void reentrantRequestsDoNotGrowTheStack() {
+        int items = 10_000;
+        BufferedPublisher<Integer> publisher = new BufferedPublisher<>(items);
+        int[] received = new int[1];
+        int[] maxDepth = new int[1];
+        Subscription[] subscription = new Subscription[1];
+        publisher.subscribe(new Subscriber<Integer>() {
+            @Override
+            public void onSubscribe(Subscription s) {
+                subscription[0] = s;
+            }
+
+            @Override
+            public void onNext(Integer item) {
+                received[0]++;
+                maxDepth[0] = Math.max(maxDepth[0], Thread.currentThread().getStackTrace().length);
+                // Request the next item from inside onNext, as FRPDemo does
+                subscription[0].request(1);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        for (int i = 0; i < items; i++) {
+            publisher.publish(i);
+        }
+        int baseDepth = Thread.currentThread().getStackTrace().length;
+        subscription[0].request(1);
+
+        assertEquals(items, received[0]);
+        assertTrue(maxDepth[0] - baseDepth < 20, "stack depth must not grow with the number of items");
+    }
+}
@@ -0,0 +1,159 @@
+package com.reactive.functional;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FunctionalDoublePublisherTest {
+
+    static class RecordingDoubleSubscriber implements DoubleSubscriber {
+        final List<Double> items = new ArrayList<>();
+        Subscription subscription;
+        boolean completed;
+        private final long initialRequest;
+
+        RecordingDoubleSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initialRequest);
+        }
+
+        @Override
+        public void onNext(double item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+
+    @Test
+    void processesReadingsWithoutBoxingAndHonoursDemand() {
+        FunctionalDoublePublisher celsius = new FunctionalDoublePublisher();
+        FunctionalDoublePublisher hot = new TemperatureProcessor().processTemperatures(celsius, 80.0);
+        assertTrue(hot.isFused());
+
+        RecordingDoubleSubscriber subscriber = new RecordingDoubleSubscriber(1);
+        hot.subscribe(subscriber);
+
+        celsius.emit(20.0);
+        celsius.emit(30.0);
+        celsius.emit(35.0);
+        celsius.complete();
+        assertEquals(List.of(86.0), subscriber.items);
+
+        subscriber.subscription.request(5);
+        assertEquals(List.of(86.0, 95.0), subscriber.items);
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    void bridgesToAndFromBoxedPublishers() {
+        FunctionalPublisher<String> source = new FunctionalPublisher<>();
+        FunctionalPublisher<Double> roundTrip = source
+                .mapToDouble(Double::parseDouble)
+                .mapToDouble(v -> v * 2)
+                .boxed();
+
+        FunctionalPublisherTest.RecordingSubscriber<Double> subscriber =
+                new FunctionalPublisherTest.RecordingSubscriber<>(Long.MAX_VALUE);
+        roundTrip.subscribe(subscriber);
+        source.emit("1.5");
+        source.emit("2");
+        source.complete();
+
+        assertEquals(List.of(3.0, 4.0), subscriber.items);
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    void overlappingEmitFromAnotherThreadIsRejected() throws InterruptedException {
+        FunctionalDoublePublisher publisher = new FunctionalDoublePublisher();
+        CountDownLatch inOnNext = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingDoubleSubscriber subscriber = new RecordingDoubleSubscriber(Long.MAX_VALUE) {
+            @Override
+            public void onNext(double item) {
+                super.onNext(item);
+                if (item == 1.0) {
+                    // Reentrant emits from the producing thread are allowed
+                    publisher.emit(2.0);
+                    inOnNext.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        };
+        publisher.subscribe(subscriber);
+
+        Thread producer = new Thread(() -> publisher.emit(1.0));
+        producer.start();
+        try {
+            assertTrue(inOnNext.await(5, TimeUnit.SECONDS));
+            assertThrows(IllegalStateException.class, () -> publisher.emit(3.0));
+        } finally {
+            release.countDown();
+            producer.join(5000);
+        }
+
+        publisher.emit(4.0);
+        assertEquals(List.of(1.0, 2.0, 4.0), subscriber.items);
+    }
+
+    @Test
+    void cancelIsIdempotent() {
+        FunctionalDoublePublisher publisher = new FunctionalDoublePublisher();
+        RecordingDoubleSubscriber cancelled = new RecordingDoubleSubscriber(Long.MAX_VALUE);
+        RecordingDoubleSubscriber active = new RecordingDoubleSubscriber(Long.MAX_VALUE);
+        publisher.subscribe(cancelled);
+        publisher.subscribe(active);
+
+        cancelled.subscription.cancel();
+        cancelled.subscription.cancel();
+        publisher.emit(1.0);
+        publisher.complete();
+
+        assertTrue(cancelled.items.isEmpty());
+        assertEquals(List.of(1.0), active.items);
+        assertTrue(active.completed);
+    }
+
+    @Test
+    void operatorResultsAreReadOnly() {
+        FunctionalDoublePublisher source = new FunctionalDoublePublisher();
+        FunctionalDoublePublisher mapped = source.mapToDouble(v -> v * 2);
+
+        assertThrows(UnsupportedOperationException.class, () -> mapped.emit(1.0));
+        assertThrows(UnsupportedOperationException.class, mapped::complete);
+        assertThrows(UnsupportedOperationException.class, () -> mapped.error(new RuntimeException()));
+
+        RecordingDoubleSubscriber subscriber = new RecordingDoubleSubscriber(Long.MAX_VALUE);
+        mapped.filter(v -> v > 2.0).subscribe(subscriber);
+        source.emit(1.0);
+        source.emit(2.0);
+        source.complete();
+
+        assertEquals(List.of(4.0), subscriber.items);
+        assertTrue(subscriber.completed);
+    }
+}
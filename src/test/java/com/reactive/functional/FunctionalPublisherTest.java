@@ -0,0 +1,151 @@
+package com.reactive.functional;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FunctionalPublisherTest {
+
+    // Records every signal and lets the test decide when to request more
+    static class RecordingSubscriber<T> implements Subscriber<T> {
+        final List<T> items = new ArrayList<>();
+        Subscription subscription;
+        Throwable error;
+        boolean completed;
+        private final long initialRequest;
+
+        RecordingSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+            if (initialRequest > 0) {
+                subscription.request(initialRequest);
+            }
+        }
+
+        @Override
+        public void onNext(T item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+
+    @Test
+    void deliversOnlyRequestedItems() {
+        FunctionalPublisher<Integer> publisher = new FunctionalPublisher<>();
+        RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>(2);
+        publisher.subscribe(subscriber);
+
+        for (int i = 1; i <= 5; i++) {
+            publisher.emit(i);
+        }
+        publisher.complete();
+        assertEquals(List.of(1, 2), subscriber.items);
+        assertFalse(subscriber.completed, "completion waits for queued items");
+
+        subscriber.subscription.request(10);
+        assertEquals(List.of(1, 2, 3, 4, 5), subscriber.items);
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    void overflowingSubscriberIsTerminatedWithoutAffectingOthers() {
+        FunctionalPublisher<Integer> publisher = new FunctionalPublisher<>(2);
+        RecordingSubscriber<Integer> slow = new RecordingSubscriber<>(0);
+        RecordingSubscriber<Integer> fast = new RecordingSubscriber<>(Long.MAX_VALUE);
+        publisher.subscribe(slow);
+        publisher.subscribe(fast);
+
+        for (int i = 1; i <= 4; i++) {
+            publisher.emit(i);
+        }
+
+        assertInstanceOf(IllegalStateException.class, slow.error);
+        assertTrue(slow.items.isEmpty());
+        assertEquals(List.of(1, 2, 3, 4), fast.items);
+        assertNull(fast.error);
+    }
+
+    @Test
+    void mapAndFilterPassDemandUpstream() {
+        FunctionalPublisher<Integer> source = new FunctionalPublisher<>();
+        RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>(1);
+        source.map(n -> n * n).filter(n -> n % 2 == 0).subscribe(subscriber);
+
+        for (int i = 1; i <= 6; i++) {
+            source.emit(i);
+        }
+        assertEquals(List.of(4), subscriber.items);
+
+        subscriber.subscription.request(2);
+        assertEquals(List.of(4, 16, 36), subscriber.items);
+    }
+
+    @Test
+    void consecutiveStagesAreFusedIntoOneSubscriber() {
+        FunctionalPublisher<Integer> source = new FunctionalPublisher<>();
+        FunctionalPublisher<String> chain = source
+                .map(n -> n * n)
+                .filter(n -> n % 2 == 0)
+                .map(n -> n + 1)
+                .filter(n -> n > 10)
+                .map(n -> "n=" + n);
+
+        assertFalse(source.isFused());
+        assertFalse(source.map(n -> n).isFused());
+        assertTrue(chain.isFused());
+        assertEquals(5, chain.stageCount());
+
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<>(Long.MAX_VALUE);
+        chain.subscribe(subscriber);
+        for (int i = 1; i <= 6; i++) {
+            source.emit(i);
+        }
+        source.complete();
+
+        assertEquals(List.of("n=17", "n=37"), subscriber.items);
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    void operatorResultsAreReadOnlyButStillChain() {
+        FunctionalPublisher<Integer> source = new FunctionalPublisher<>();
+        FunctionalPublisher<Integer> mapped = source.map(n -> n * 10);
+        FunctionalPublisher<Integer> filtered = source.filter(n -> n > 1);
+
+        for (FunctionalPublisher<Integer> operator : List.of(mapped, filtered)) {
+            assertThrows(UnsupportedOperationException.class, () -> operator.emit(1));
+            assertThrows(UnsupportedOperationException.class, operator::complete);
+            assertThrows(UnsupportedOperationException.class, () -> operator.error(new RuntimeException()));
+        }
+
+        RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>(Long.MAX_VALUE);
+        mapped.filter(n -> n > 10).subscribe(subscriber);
+        source.emit(1);
+        source.emit(2);
+        source.complete();
+
+        assertEquals(List.of(20), subscriber.items);
+        assertTrue(subscriber.completed);
+    }
+}
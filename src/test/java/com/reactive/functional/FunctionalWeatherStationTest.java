@@ -0,0 +1,82 @@
+package com.reactive.functional;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class FunctionalWeatherStationTest {
+
+    @Test
+    void reusingStationHandsOutOneEventAndSnapshotsDetach() {
+        long[] ticks = {100L};
+        FunctionalWeatherStation station = new FunctionalWeatherStation(() -> ticks[0]++, true);
+        List<FunctionalWeatherStation.TemperatureEvent> seen = new ArrayList<>();
+        List<FunctionalWeatherStation.Temperature> kept = new ArrayList<>();
+        station.addTemperatureEventObserver(seen::add);
+        station.addTemperatureEventObserver(t -> kept.add(t.snapshot()));
+
+        station.setTemperature(20.0);
+        station.setTemperature(21.0);
+
+        assertSame(seen.get(0), seen.get(1));
+        assertFalse(seen.get(0) instanceof FunctionalWeatherStation.Temperature);
+        assertEquals(21.0, seen.get(0).getValue());
+        assertEquals(20.0, kept.get(0).getValue());
+        assertEquals(100L, kept.get(0).getTimestamp());
+        assertEquals(21.0, kept.get(1).getValue());
+        assertEquals(101L, kept.get(1).getTimestamp());
+        assertSame(kept.get(1), kept.get(1).snapshot());
+    }
+
+    @Test
+    void temperatureObserversNeverSeeTheReusedView() {
+        FunctionalWeatherStation station = new FunctionalWeatherStation(
+                FunctionalWeatherStation.Clock.monotonic(), true);
+        List<FunctionalWeatherStation.Temperature> seen = new ArrayList<>();
+        station.addTemperatureObserver(seen::add);
+
+        station.setTemperature(20.0);
+        station.setTemperature(21.0);
+
+        assertNotSame(seen.get(0), seen.get(1));
+        assertEquals(20.0, seen.get(0).getValue());
+        assertEquals(21.0, seen.get(1).getValue());
+    }
+
+    @Test
+    void defaultStationAllocatesAnEventPerUpdate() {
+        FunctionalWeatherStation station = new FunctionalWeatherStation();
+        List<FunctionalWeatherStation.Temperature> seen = new ArrayList<>();
+        station.addTemperatureObserver(seen::add);
+
+        station.setTemperature(1.0);
+        station.setTemperature(2.0);
+
+        assertNotSame(seen.get(0), seen.get(1));
+        assertEquals(1.0, seen.get(0).getValue());
+    }
+
+    @Test
+    void removingAnObserverKeepsTheOthersInOrder() {
+        FunctionalWeatherStation station = new FunctionalWeatherStation(
+                FunctionalWeatherStation.Clock.coarse(), true);
+        List<String> calls = new ArrayList<>();
+        Consumer<FunctionalWeatherStation.Temperature> a = t -> calls.add("a");
+        Consumer<FunctionalWeatherStation.Temperature> b = t -> calls.add("b");
+        Consumer<FunctionalWeatherStation.Temperature> c = t -> calls.add("c");
+        station.addTemperatureObserver(a);
+        station.addTemperatureObserver(b);
+        station.addTemperatureObserver(c);
+        station.removeTemperatureObserver(b);
+
+        station.setTemperature(5.0);
+        assertEquals(List.of("a", "c"), calls);
+    }
+}
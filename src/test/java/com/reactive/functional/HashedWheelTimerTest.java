@@ -0,0 +1,86 @@
+package com.reactive.functional;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashedWheelTimerTest {
+
+    @Test
+    void firesNoEarlierThanTheDelayEvenAcrossWheelRounds() throws InterruptedException {
+        HashedWheelTimer timer = new HashedWheelTimer(1, TimeUnit.MILLISECONDS, 8);
+        try {
+            CountDownLatch fired = new CountDownLatch(1);
+            long start = System.nanoTime();
+            long[] elapsed = new long[1];
+            timer.schedule(() -> {
+                elapsed[0] = System.nanoTime() - start;
+                fired.countDown();
+            }, 30, TimeUnit.MILLISECONDS);
+
+            assertTrue(fired.await(2, TimeUnit.SECONDS));
+            assertTrue(elapsed[0] >= TimeUnit.MILLISECONDS.toNanos(30));
+        } finally {
+            timer.shutdown();
+        }
+    }
+
+    @Test
+    void cancelledTimeoutsNeverRun() throws InterruptedException {
+        HashedWheelTimer timer = new HashedWheelTimer();
+        try {
+            AtomicInteger runs = new AtomicInteger();
+            TimerService.Timeout timeout = timer.schedule(runs::incrementAndGet, 20, TimeUnit.MILLISECONDS);
+            assertTrue(timeout.cancel());
+            assertFalse(timeout.cancel());
+
+            CountDownLatch later = new CountDownLatch(1);
+            timer.schedule(later::countDown, 40, TimeUnit.MILLISECONDS);
+            assertTrue(later.await(2, TimeUnit.SECONDS));
+            assertEquals(0, runs.get());
+            assertTrue(timeout.isCancelled());
+        } finally {
+            timer.shutdown();
+        }
+    }
+
+    @Test
+    void failingTasksGoToTheFailureHandler() throws InterruptedException {
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        HashedWheelTimer timer = new HashedWheelTimer(1, TimeUnit.MILLISECONDS, 8,
+                (thread, error) -> failures.add(error));
+        try {
+            timer.schedule(() -> {
+                throw new IllegalStateException("boom");
+            }, 1, TimeUnit.MILLISECONDS);
+            CountDownLatch later = new CountDownLatch(1);
+            timer.schedule(later::countDown, 10, TimeUnit.MILLISECONDS);
+
+            assertTrue(later.await(2, TimeUnit.SECONDS));
+            assertEquals(1, failures.size());
+            assertEquals("boom", failures.get(0).getMessage());
+        } finally {
+            timer.shutdown();
+        }
+    }
+
+    @Test
+    void rejectsSchedulingAfterShutdown() {
+        HashedWheelTimer timer = new HashedWheelTimer();
+        timer.schedule(() -> { }, 1, TimeUnit.MILLISECONDS);
+        timer.shutdown();
+        assertThrows(RejectedExecutionException.class,
+                () -> timer.schedule(() -> { }, 1, TimeUnit.MILLISECONDS));
+        assertThrows(IllegalStateException.class, () -> TimerService.shared().shutdown());
+    }
+}
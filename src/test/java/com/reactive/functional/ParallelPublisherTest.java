@@ -0,0 +1,200 @@
+package com.reactive.functional;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelPublisherTest {
+
+    // Emits 0..count-1 strictly on demand
+    static class RangePublisher implements Publisher<Integer> {
+        private final int count;
+        volatile int emitted;
+
+        RangePublisher(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public void subscribe(Subscriber<? super Integer> subscriber) {
+            subscriber.onSubscribe(new Subscription() {
+                private final AtomicLong requested = new AtomicLong();
+                private int next;
+                private volatile boolean cancelled;
+
+                @Override
+                public void request(long n) {
+                    long previous = Demand.add(requested, n);
+                    if (previous != 0) {
+                        return;
+                    }
+                    long r = requested.get();
+                    while (!cancelled) {
+                        long e = 0;
+                        while (e != r && next < count && !cancelled) {
+                            emitted = next + 1;
+                            subscriber.onNext(next++);
+                            e++;
+                        }
+                        if (next == count && !cancelled) {
+                            cancelled = true;
+                            subscriber.onComplete();
+                            return;
+                        }
+                        r = requested.addAndGet(-e);
+                        if (r == 0) {
+                            return;
+                        }
+                    }
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled = true;
+                }
+            });
+        }
+    }
+
+    static class CollectingSubscriber<T> implements Subscriber<T> {
+        final List<T> items = new CopyOnWriteArrayList<>();
+        final CountDownLatch terminated = new CountDownLatch(1);
+        volatile Subscription subscription;
+        volatile Throwable error;
+        private final long initialRequest;
+
+        CollectingSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initialRequest);
+        }
+
+        @Override
+        public void onNext(T item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            terminated.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            terminated.countDown();
+        }
+    }
+
+    private static int slowSquare(int value, Set<Thread> threads) {
+        threads.add(Thread.currentThread());
+        try {
+            Thread.sleep(0, ThreadLocalRandom.current().nextInt(200_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return value * value;
+    }
+
+    @Test
+    void orderedMergeRestoresUpstreamOrder() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            RangePublisher source = new RangePublisher(2_000);
+            Set<Thread> workers = ConcurrentHashMap.newKeySet();
+            CollectingSubscriber<Integer> subscriber = new CollectingSubscriber<>(Long.MAX_VALUE);
+
+            ParallelPublisher.from(source, 4, pool, 16)
+                    .filter(i -> i % 3 != 0)
+                    .map(i -> slowSquare(i, workers))
+                    .ordered()
+                    .subscribe(subscriber);
+
+            assertTrue(subscriber.terminated.await(10, TimeUnit.SECONDS));
+            assertNull(subscriber.error);
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < 2_000; i++) {
+                if (i % 3 != 0) {
+                    expected.add(i * i);
+                }
+            }
+            assertEquals(expected, subscriber.items);
+            assertTrue(workers.size() > 1);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void sequentialMergeDeliversEveryItem() throws InterruptedException {
+        RangePublisher source = new RangePublisher(5_000);
+        CollectingSubscriber<Integer> subscriber = new CollectingSubscriber<>(Long.MAX_VALUE);
+
+        ParallelPublisher.from(source, 8, Executors.newVirtualThreadPerTaskExecutor(), 8)
+                .map(i -> i + 1)
+                .sequential()
+                .subscribe(subscriber);
+
+        assertTrue(subscriber.terminated.await(10, TimeUnit.SECONDS));
+        assertNull(subscriber.error);
+        assertEquals(5_000, subscriber.items.size());
+        assertEquals(5_000, new HashSet<>(subscriber.items).size());
+    }
+
+    @Test
+    void downstreamDemandBoundsDelivery() throws InterruptedException {
+        RangePublisher source = new RangePublisher(1_000);
+        CollectingSubscriber<Integer> subscriber = new CollectingSubscriber<>(5);
+
+        ParallelPublisher.from(source, 2, Executors.newVirtualThreadPerTaskExecutor(), 4)
+                .ordered()
+                .subscribe(subscriber);
+
+        Thread.sleep(100);
+        assertEquals(List.of(0, 1, 2, 3, 4), subscriber.items);
+        // Beyond the five delivered items, at most rails * prefetch are in flight
+        assertTrue(source.emitted <= 5 + 2 * 4);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertTrue(subscriber.terminated.await(10, TimeUnit.SECONDS));
+        assertEquals(1_000, subscriber.items.size());
+    }
+
+    @Test
+    void railFailureIsSignalledDownstream() throws InterruptedException {
+        RangePublisher source = new RangePublisher(100);
+        CollectingSubscriber<Integer> subscriber = new CollectingSubscriber<>(Long.MAX_VALUE);
+
+        ParallelPublisher.from(source, 2, Executors.newVirtualThreadPerTaskExecutor(), 4)
+                .map(i -> {
+                    if (i == 50) {
+                        throw new IllegalArgumentException("bad item");
+                    }
+                    return i;
+                })
+                .sequential()
+                .subscribe(subscriber);
+
+        assertTrue(subscriber.terminated.await(10, TimeUnit.SECONDS));
+        assertEquals("bad item", subscriber.error.getMessage());
+    }
+}
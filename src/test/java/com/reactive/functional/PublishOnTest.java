@@ -0,0 +1,137 @@
+package com.reactive.functional;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PublishOnTest {
+
+    // Subscriber that blocks for a while on every item
+    static class SleepySubscriber implements Subscriber<Integer> {
+        final List<Integer> items = new CopyOnWriteArrayList<>();
+        final CountDownLatch completed = new CountDownLatch(1);
+        volatile Thread deliveryThread;
+        private final long sleepMillis;
+
+        SleepySubscriber(long sleepMillis) {
+            this.sleepMillis = sleepMillis;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(Integer item) {
+            deliveryThread = Thread.currentThread();
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+    }
+
+    @Test
+    void blockingSubscriberDoesNotStallTheProducer() throws InterruptedException {
+        FunctionalPublisher<Integer> source = new FunctionalPublisher<>();
+        SleepySubscriber subscriber = new SleepySubscriber(5);
+        source.publishOn().subscribe(subscriber);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            source.emit(i);
+        }
+        source.complete();
+        long producerMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(producerMillis < 250, "producer took " + producerMillis + "ms");
+        assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS));
+        assertEquals(100, subscriber.items.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, subscriber.items.get(i));
+        }
+        assertTrue(subscriber.deliveryThread.isVirtual());
+    }
+
+    @Test
+    void manyBlockingSubscribersRunOnVirtualThreads() throws InterruptedException {
+        FunctionalPublisher<Integer> source = new FunctionalPublisher<>();
+        FunctionalPublisher<Integer> async = source.publishOn();
+        SleepySubscriber[] subscribers = new SleepySubscriber[5_000];
+        for (int i = 0; i < subscribers.length; i++) {
+            subscribers[i] = new SleepySubscriber(50);
+            async.subscribe(subscribers[i]);
+        }
+
+        source.emit(1);
+        source.complete();
+
+        for (SleepySubscriber subscriber : subscribers) {
+            assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS));
+            assertEquals(List.of(1), subscriber.items);
+        }
+    }
+
+    @Test
+    void platformPoolAndSubscribeOnCanBePluggedIn() throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            FunctionalPublisher<Integer> source = new FunctionalPublisher<>();
+            SleepySubscriber subscriber = new SleepySubscriber(0);
+            CountDownLatch subscribed = new CountDownLatch(1);
+            source.subscribeOn(pool).map(n -> n * 10).publishOn(pool, 16).subscribe(new Subscriber<Integer>() {
+                @Override
+                public void onSubscribe(Subscription subscription) {
+                    subscriber.onSubscribe(subscription);
+                    subscribed.countDown();
+                }
+
+                @Override
+                public void onNext(Integer item) {
+                    subscriber.onNext(item);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                }
+
+                @Override
+                public void onComplete() {
+                    subscriber.onComplete();
+                }
+            });
+
+            assertTrue(subscribed.await(5, TimeUnit.SECONDS));
+            source.emit(1);
+            source.emit(2);
+            source.complete();
+
+            assertTrue(subscriber.completed.await(5, TimeUnit.SECONDS));
+            assertEquals(List.of(10, 20), subscriber.items);
+            assertNotEquals(Thread.currentThread(), subscriber.deliveryThread);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
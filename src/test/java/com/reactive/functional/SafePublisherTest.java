@@ -0,0 +1,118 @@
+package com.reactive.functional;
+
+import com.reactive.functional.FunctionalPublisherTest.RecordingSubscriber;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SafePublisherTest {
+
+    @Test
+    void deliversOnlyAgainstDemand() {
+        SafePublisher<String> publisher = new SafePublisher<>();
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<>(2);
+        publisher.subscribe(subscriber);
+
+        publisher.publish("a");
+        publisher.publish("b");
+        publisher.publish("c");
+        publisher.complete();
+
+        assertEquals(List.of("a", "b"), subscriber.items);
+        assertEquals(1, publisher.getDroppedCount());
+        assertTrue(subscriber.completed);
+        assertEquals(0, publisher.subscriberCount());
+    }
+
+    @Test
+    void cancelRemovesTheSubscriptionImmediately() {
+        SafePublisher<String> publisher = new SafePublisher<>();
+        RecordingSubscriber<String> first = new RecordingSubscriber<>(Long.MAX_VALUE);
+        RecordingSubscriber<String> second = new RecordingSubscriber<>(Long.MAX_VALUE);
+        publisher.subscribe(first);
+        publisher.subscribe(second);
+
+        first.subscription.cancel();
+        publisher.publish("x");
+
+        assertEquals(1, publisher.subscriberCount());
+        assertTrue(first.items.isEmpty());
+        assertEquals(List.of("x"), second.items);
+    }
+
+    @Test
+    void abandonedSubscribersArePurgedOnPublish() throws InterruptedException {
+        SafePublisher<Integer> publisher = new SafePublisher<>();
+        for (int i = 0; i < 100; i++) {
+            publisher.subscribe(new RecordingSubscriber<>(Long.MAX_VALUE));
+        }
+        RecordingSubscriber<Integer> kept = new RecordingSubscriber<>(Long.MAX_VALUE);
+        publisher.subscribe(kept);
+
+        for (int attempt = 0; attempt < 50 && publisher.subscriberCount() > 1; attempt++) {
+            System.gc();
+            Thread.sleep(20);
+            publisher.publish(attempt);
+        }
+
+        assertEquals(1, publisher.subscriberCount());
+        assertFalse(kept.items.isEmpty());
+    }
+
+    @Test
+    void concurrentPublishesClaimDemandOneAtATime() throws Exception {
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < 200; round++) {
+                SafePublisher<Integer> publisher = new SafePublisher<>();
+                AtomicInteger inOnNext = new AtomicInteger();
+                AtomicBoolean overlapped = new AtomicBoolean();
+                ParallelPublisherTest.CollectingSubscriber<Integer> subscriber =
+                        new ParallelPublisherTest.CollectingSubscriber<>(3) {
+                            @Override
+                            public void onNext(Integer item) {
+                                if (inOnNext.incrementAndGet() > 1) {
+                                    overlapped.set(true);
+                                }
+                                super.onNext(item);
+                                inOnNext.decrementAndGet();
+                            }
+                        };
+                publisher.subscribe(subscriber);
+
+                CyclicBarrier start = new CyclicBarrier(threads);
+                List<Future<?>> publishes = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    int item = t;
+                    publishes.add(pool.submit(() -> {
+                        start.await();
+                        publisher.publish(item);
+                        return null;
+                    }));
+                }
+                for (Future<?> publish : publishes) {
+                    // Fails here if publish() threw
+                    publish.get();
+                }
+
+                assertEquals(3, subscriber.items.size());
+                assertEquals(threads - 3, publisher.getDroppedCount());
+                assertFalse(overlapped.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
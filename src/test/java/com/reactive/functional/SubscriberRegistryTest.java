@@ -0,0 +1,76 @@
+package com.reactive.functional;
+
+import com.reactive.functional.FunctionalPublisherTest.RecordingSubscriber;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SubscriberRegistryTest {
+
+    @Test
+    void iterationIsUnaffectedByChangesMadeDuringIt() {
+        SubscriberRegistry<String> registry = new SubscriberRegistry<>();
+        registry.add("a");
+        registry.add("b");
+        List<String> seen = new ArrayList<>();
+
+        registry.forEach(element -> {
+            seen.add(element);
+            if (element.equals("a")) {
+                assertTrue(registry.remove("a"));
+                assertFalse(registry.remove("a"));
+                registry.add("c");
+            }
+        });
+
+        assertEquals(List.of("a", "b"), seen);
+        assertEquals(2, registry.size());
+        seen.clear();
+        registry.forEach((element, list) -> list.add(element), seen);
+        assertEquals(List.of("b", "c"), seen);
+    }
+
+    @Test
+    void concurrentSubscribeAndCancelWhileEmitting() throws InterruptedException {
+        FunctionalPublisher<Integer> publisher = new FunctionalPublisher<>();
+        RecordingSubscriber<Integer> steady = new RecordingSubscriber<>(Long.MAX_VALUE);
+        publisher.subscribe(steady);
+
+        int threads = 4;
+        CountDownLatch done = new CountDownLatch(threads);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    for (int i = 0; i < 2_000; i++) {
+                        RecordingSubscriber<Integer> shortLived = new RecordingSubscriber<>(Long.MAX_VALUE);
+                        publisher.subscribe(shortLived);
+                        shortLived.subscription.cancel();
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                } finally {
+                    done.countDown();
+                }
+            });
+            worker.start();
+        }
+
+        int emitted = 0;
+        while (done.getCount() > 0) {
+            publisher.emit(emitted++);
+        }
+        done.await();
+
+        assertNull(failure.get());
+        assertEquals(emitted, steady.items.size());
+    }
+}
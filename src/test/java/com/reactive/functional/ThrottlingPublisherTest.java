@@ -0,0 +1,163 @@
+package com.reactive.functional;
+
+import com.reactive.functional.FunctionalPublisherTest.RecordingSubscriber;
+import com.reactive.functional.ThrottlingPublisher.Mode;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ThrottlingPublisherTest {
+
+    @Test
+    void burstIsEmittedImmediatelyAndOverflowIsBounded() {
+        ThrottlingPublisher<Integer> publisher =
+                new ThrottlingPublisher<>(Duration.ofHours(1), 2, 3, Mode.QUEUE);
+        try {
+            RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>(Long.MAX_VALUE);
+            publisher.subscribe(subscriber);
+
+            for (int i = 1; i <= 10; i++) {
+                publisher.publish(i);
+            }
+
+            assertEquals(List.of(1, 2), subscriber.items);
+            assertEquals(3, publisher.getPendingCount());
+            assertEquals(5, publisher.getDroppedCount());
+        } finally {
+            publisher.shutdown();
+        }
+    }
+
+    @Test
+    void latestModeKeepsOnlyTheFreshestPendingItem() {
+        ThrottlingPublisher<Integer> publisher =
+                new ThrottlingPublisher<>(Duration.ofHours(1), 1, 16, Mode.LATEST);
+        try {
+            RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>(Long.MAX_VALUE);
+            publisher.subscribe(subscriber);
+
+            for (int i = 1; i <= 4; i++) {
+                publisher.publish(i);
+            }
+
+            assertEquals(List.of(1), subscriber.items);
+            assertEquals(1, publisher.getPendingCount());
+            assertEquals(2, publisher.getDroppedCount());
+        } finally {
+            publisher.shutdown();
+        }
+    }
+
+    @Test
+    void pendingItemsAreReleasedByTheTimerInOrder() throws InterruptedException {
+        ThrottlingPublisher<Integer> publisher = new ThrottlingPublisher<>(Duration.ofMillis(10));
+        try {
+            List<Integer> received = new CopyOnWriteArrayList<>();
+            CountDownLatch done = new CountDownLatch(5);
+            RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>(Long.MAX_VALUE) {
+                @Override
+                public void onNext(Integer item) {
+                    received.add(item);
+                    done.countDown();
+                }
+            };
+            publisher.subscribe(subscriber);
+
+            for (int i = 1; i <= 5; i++) {
+                publisher.publish(i);
+            }
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals(List.of(1, 2, 3, 4, 5), received);
+        } finally {
+            publisher.shutdown();
+        }
+    }
+
+    @Test
+    void subscriberQueueOverflowIsDropped() {
+        ThrottlingPublisher<Integer> publisher =
+                new ThrottlingPublisher<>(Duration.ofHours(1), 16, 3, Mode.QUEUE);
+        try {
+            // Publishing from inside onNext fills the queue while the drainer is busy
+            RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>(Long.MAX_VALUE) {
+                @Override
+                public void onNext(Integer item) {
+                    super.onNext(item);
+                    if (item == 1) {
+                        for (int i = 2; i <= 9; i++) {
+                            publisher.publish(i);
+                        }
+                    }
+                }
+            };
+            publisher.subscribe(subscriber);
+
+            publisher.publish(1);
+
+            assertEquals(List.of(1, 2, 3, 4), subscriber.items);
+            assertEquals(5, publisher.getDroppedCount());
+        } finally {
+            publisher.shutdown();
+        }
+    }
+
+    @Test
+    void invalidRequestDeregistersTheSubscriber() {
+        ThrottlingPublisher<Integer> publisher =
+                new ThrottlingPublisher<>(Duration.ofHours(1), 4, 4, Mode.QUEUE);
+        try {
+            RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>(Long.MAX_VALUE);
+            publisher.subscribe(subscriber);
+
+            subscriber.subscription.request(0);
+            subscriber.subscription.request(-1);
+            publisher.publish(1);
+
+            assertTrue(subscriber.items.isEmpty());
+            assertTrue(subscriber.error instanceof IllegalArgumentException);
+        } finally {
+            publisher.shutdown();
+        }
+    }
+
+    @Test
+    void timerReleasedItemsAreDeliveredOffTheTimerThread() throws InterruptedException {
+        HashedWheelTimer timer = new HashedWheelTimer();
+        ExecutorService delivery = Executors.newSingleThreadExecutor(r -> new Thread(r, "delivery"));
+        ThrottlingPublisher<Integer> publisher =
+                new ThrottlingPublisher<>(Duration.ofMillis(5), 1, 16, Mode.QUEUE, timer, delivery);
+        try {
+            List<String> threads = new CopyOnWriteArrayList<>();
+            CountDownLatch done = new CountDownLatch(3);
+            RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>(Long.MAX_VALUE) {
+                @Override
+                public void onNext(Integer item) {
+                    threads.add(Thread.currentThread().getName());
+                    done.countDown();
+                }
+            };
+            publisher.subscribe(subscriber);
+
+            for (int i = 1; i <= 3; i++) {
+                publisher.publish(i);
+            }
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals(List.of(Thread.currentThread().getName(), "delivery", "delivery"), threads);
+        } finally {
+            publisher.shutdown();
+            delivery.shutdown();
+            timer.shutdown();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.reactive.iterator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.PrimitiveIterator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffHeapTemperatureCollectionTest {
+
+    @Test
+    void spansChunksWithLongIndexes() throws IOException {
+        try (OffHeapTemperatureCollection collection = new OffHeapTemperatureCollection(8)) {
+            for (int i = 0; i < 100; i++) {
+                collection.addTemperature(i);
+            }
+            assertEquals(100L, collection.size());
+            assertEquals(57.0, collection.getTemperature(57L));
+            assertThrows(IndexOutOfBoundsException.class, () -> collection.getTemperature(100L));
+
+            double sum = 0;
+            for (Double temperature : collection) {
+                sum += temperature;
+            }
+            assertEquals(4950.0, sum);
+            assertEquals(4950.0, collection.parallelDoubleStream().sum());
+
+            PrimitiveIterator.OfDouble above = collection.aboveThresholdIterator(97.5);
+            assertEquals(98.0, above.nextDouble());
+            assertEquals(99.0, above.nextDouble());
+            assertFalse(above.hasNext());
+        }
+    }
+
+    @Test
+    void fileBackedHistorySurvivesReopen(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("station.hist");
+        try (OffHeapTemperatureCollection collection = OffHeapTemperatureCollection.open(file, 16)) {
+            assertTrue(collection.isFileBacked());
+            for (int i = 0; i < 40; i++) {
+                collection.addTemperature(i * 0.25);
+            }
+        }
+
+        try (OffHeapTemperatureCollection reopened = OffHeapTemperatureCollection.open(file)) {
+            assertEquals(40L, reopened.size());
+            assertEquals(9.75, reopened.getTemperature(39L));
+            reopened.addTemperature(-1.0);
+            assertEquals(41L, reopened.size());
+            assertEquals(-1.0, reopened.doubleStream().min().orElseThrow());
+        }
+    }
+}
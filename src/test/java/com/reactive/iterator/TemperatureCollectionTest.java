@@ -0,0 +1,179 @@
+package com.reactive.iterator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.Spliterator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TemperatureCollectionTest {
+
+    private static TemperatureCollection readings(int count) {
+        TemperatureCollection collection = new TemperatureCollection(0);
+        for (int i = 0; i < count; i++) {
+            collection.addTemperature(i * 0.5);
+        }
+        return collection;
+    }
+
+    @Test
+    void growsAndIteratesInInsertionOrder() {
+        TemperatureCollection collection = readings(1_000);
+        assertEquals(1_000, collection.size());
+        assertEquals(499.5, collection.getTemperatureAsDouble(999));
+        assertThrows(IndexOutOfBoundsException.class, () -> collection.getTemperature(1_000));
+
+        List<Double> boxed = new ArrayList<>();
+        for (Double temperature : collection) {
+            boxed.add(temperature);
+        }
+        assertEquals(1_000, boxed.size());
+        assertEquals(0.5, boxed.get(1));
+    }
+
+    @Test
+    void aboveThresholdIteratorSkipsLowerReadings() {
+        TemperatureCollection collection = new TemperatureCollection();
+        for (double value : new double[] {18.4, 18.7, 18.5, 18.9, 18.6}) {
+            collection.addTemperature(value);
+        }
+
+        PrimitiveIterator.OfDouble iterator = collection.aboveThresholdIterator(18.6);
+        assertEquals(18.7, iterator.nextDouble());
+        assertEquals(18.9, iterator.nextDouble());
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    void spliteratorSplitsIntoBalancedHalves() {
+        TemperatureCollection collection = readings(100);
+        Spliterator.OfDouble suffix = collection.spliterator();
+        Spliterator.OfDouble prefix = suffix.trySplit();
+
+        assertNotNull(prefix);
+        assertEquals(50, prefix.estimateSize());
+        assertEquals(50, suffix.estimateSize());
+        prefix.tryAdvance((double value) -> assertEquals(0.0, value));
+        suffix.tryAdvance((double value) -> assertEquals(25.0, value));
+    }
+
+    @Test
+    void parallelStreamMatchesSequential() {
+        TemperatureCollection collection = readings(100_000);
+        assertEquals(collection.doubleStream().sum(), collection.parallelDoubleStream().sum(), 1e-6);
+        assertEquals(49_999.5, collection.parallelDoubleStream().max().orElseThrow());
+        assertArrayEquals(collection.doubleStream().filter(t -> t > 100).toArray(),
+                collection.parallelDoubleStream().filter(t -> t > 100).toArray());
+    }
+
+    @Test
+    void bulkScansMatchTheIterator() {
+        Random random = new Random(7);
+        for (int size : new int[] {0, 5, 8, 13, 1_003}) {
+            TemperatureCollection collection = new TemperatureCollection();
+            for (int i = 0; i < size; i++) {
+                // Long runs on both sides of the threshold, plus some scattered readings
+                collection.addTemperature((i / 20) % 2 == 0 ? 15 + random.nextDouble() : 19 + random.nextDouble() * 3);
+            }
+
+            List<Double> expected = new ArrayList<>();
+            PrimitiveIterator.OfDouble iterator = collection.aboveThresholdIterator(20.0);
+            while (iterator.hasNext()) {
+                expected.add(iterator.nextDouble());
+            }
+
+            assertEquals(expected.size(), collection.countAboveThreshold(20.0));
+            double[] compacted = collection.temperaturesAboveThreshold(20.0);
+            assertArrayEquals(expected.stream().mapToDouble(Double::doubleValue).toArray(), compacted);
+
+            List<Double> fromRanges = new ArrayList<>();
+            int[] ranges = collection.rangesAboveThreshold(20.0);
+            for (int r = 0; r < ranges.length; r += 2) {
+                assertTrue(r == 0 || ranges[r] > ranges[r - 1]);
+                for (int i = ranges[r]; i < ranges[r + 1]; i++) {
+                    fromRanges.add(collection.getTemperatureAsDouble(i));
+                }
+            }
+            assertEquals(expected, fromRanges);
+        }
+    }
+
+    @Test
+    void negativeZeroThresholdMatchesPositiveZero() {
+        TemperatureCollection collection = new TemperatureCollection();
+        for (int i = 0; i < 16; i++) {
+            collection.addTemperature(0.0);
+        }
+        collection.addTemperature(-0.0);
+        collection.addTemperature(0.5);
+
+        for (double threshold : new double[] {-0.0, 0.0}) {
+            assertEquals(1, collection.countAboveThreshold(threshold));
+            assertArrayEquals(new double[] {0.5}, collection.temperaturesAboveThreshold(threshold));
+            assertArrayEquals(new int[] {17, 18}, collection.rangesAboveThreshold(threshold));
+            PrimitiveIterator.OfDouble iterator = collection.aboveThresholdIterator(threshold);
+            assertEquals(0.5, iterator.nextDouble());
+            assertFalse(iterator.hasNext());
+        }
+    }
+
+    @Test
+    void sparseMatchesAreCompactedInOrder() {
+        TemperatureCollection collection = new TemperatureCollection();
+        List<Double> expected = new ArrayList<>();
+        for (int i = 0; i < 3 * ThresholdScan.SAMPLE; i++) {
+            // One spike every thousand readings, well under one per block
+            double value = i % 1_000 == 999 ? 30.0 + i % 7 : 20.0;
+            collection.addTemperature(value);
+            if (value > 25.0) {
+                expected.add(value);
+            }
+        }
+
+        assertArrayEquals(expected.stream().mapToDouble(Double::doubleValue).toArray(),
+                collection.temperaturesAboveThreshold(25.0));
+    }
+
+    @Test
+    void rangeSelectsReadingsByTimestamp() {
+        TemperatureCollection collection = new TemperatureCollection();
+        for (int minute = 0; minute < 60; minute++) {
+            // Two readings per minute
+            collection.addTemperature(minute * 60_000L, minute);
+            collection.addTemperature(minute * 60_000L + 30_000L, minute + 0.5);
+        }
+
+        assertArrayEquals(new double[] {10.0, 10.5, 11.0, 11.5}, collection.range(600_000L, 720_000L).toArray());
+        assertEquals(10, collection.range(55 * 60_000L, Long.MAX_VALUE).count());
+        assertEquals(0, collection.range(720_000L, 600_000L).count());
+        assertEquals(120, collection.indexAtOrAfter(Long.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> collection.addTemperature(0L, 1.0));
+    }
+
+    @Test
+    void zoneMapQueriesMatchAFullScan() {
+        Random random = new Random(11);
+        TemperatureCollection collection = new TemperatureCollection();
+        for (int i = 0; i < 10 * TemperatureCollection.ZONE_SIZE + 17; i++) {
+            // Slow drift so whole blocks fall inside or outside a value range
+            double value = i == 5_000 ? Double.NaN : 10 + i / 500.0 + random.nextDouble();
+            collection.addTemperature(i, value);
+        }
+
+        double[][] ranges = {{12.0, 14.0}, {0.0, 100.0}, {15.25, 15.5}, {-5.0, 0.0}};
+        for (double[] range : ranges) {
+            double[] expected = collection.doubleStream().filter(t -> t >= range[0] && t <= range[1]).toArray();
+            assertEquals(expected.length, collection.countBetween(range[0], range[1]));
+            assertArrayEquals(expected, collection.temperaturesBetween(range[0], range[1]));
+        }
+    }
+}
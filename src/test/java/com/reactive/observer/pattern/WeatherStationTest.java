@@ -0,0 +1,156 @@
+package com.reactive.observer.pattern;
+
+import com.reactive.common.ChangeSuppression;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WeatherStationTest {
+
+    // Observer that waits for a gate before handling each update
+    static class GatedObserver implements TemperatureObserver {
+        final List<Double> received = new CopyOnWriteArrayList<>();
+        final CountDownLatch gate = new CountDownLatch(1);
+
+        @Override
+        public void update(double temperature) {
+            try {
+                gate.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(temperature);
+        }
+    }
+
+    static class RecordingObserver implements TemperatureObserver {
+        final List<Double> received = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void update(double temperature) {
+            received.add(temperature);
+        }
+    }
+
+    private static void awaitSize(List<Double> list, int size) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (list.size() < size && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void synchronousModeNotifiesOnTheCallingThread() {
+        WeatherStation station = new WeatherStation();
+        RecordingObserver observer = new RecordingObserver();
+        station.addObserver(observer);
+
+        station.setTemperature(22.5);
+        assertEquals(List.of(22.5), observer.received);
+    }
+
+    @Test
+    void slowObserverDoesNotDelayTheOthers() throws InterruptedException {
+        WeatherStation station = new WeatherStation(WeatherStation.OverflowPolicy.DROP, 4);
+        GatedObserver slow = new GatedObserver();
+        RecordingObserver fast = new RecordingObserver();
+        station.addObserver(slow);
+        station.addObserver(fast);
+
+        for (int i = 0; i < 10; i++) {
+            station.setTemperature(i);
+            // The fast observer keeps up even while the slow one is stuck
+            awaitSize(fast.received, i + 1);
+        }
+        assertEquals(10, fast.received.size());
+        assertTrue(slow.received.isEmpty());
+
+        slow.gate.countDown();
+        Thread.sleep(100);
+        // One value was in flight and at most four fit the mailbox; the rest were dropped
+        assertTrue(slow.received.size() <= 5);
+        assertEquals(List.of(0.0, 1.0, 2.0, 3.0), slow.received.subList(0, 4));
+        assertEquals(10 - slow.received.size(), station.getDroppedCount());
+    }
+
+    @Test
+    void conflatingMailboxEndsOnTheLatestValue() throws InterruptedException {
+        WeatherStation station = new WeatherStation(WeatherStation.OverflowPolicy.CONFLATE, 1);
+        GatedObserver slow = new GatedObserver();
+        station.addObserver(slow);
+
+        for (int i = 0; i < 100; i++) {
+            station.setTemperature(i);
+        }
+        slow.gate.countDown();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!slow.received.contains(99.0) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(99.0, slow.received.get(slow.received.size() - 1));
+        assertTrue(slow.received.size() <= 2);
+    }
+
+    @Test
+    void removedObserverStopsReceiving() throws InterruptedException {
+        WeatherStation station = new WeatherStation(WeatherStation.OverflowPolicy.BLOCK);
+        RecordingObserver observer = new RecordingObserver();
+        station.addObserver(observer);
+
+        station.setTemperature(1.0);
+        awaitSize(observer.received, 1);
+        station.removeObserver(observer);
+        station.setTemperature(2.0);
+
+        Thread.sleep(50);
+        assertEquals(List.of(1.0), observer.received);
+    }
+
+    @Test
+    void asynchronousFailuresGoToTheErrorHandler() throws InterruptedException {
+        WeatherStation station = new WeatherStation(WeatherStation.OverflowPolicy.BLOCK);
+        List<Double> failedAt = new CopyOnWriteArrayList<>();
+        station.setObserverErrorHandler((observer, temperature, error) -> failedAt.add(temperature));
+        RecordingObserver observer = new RecordingObserver() {
+            @Override
+            public void update(double temperature) {
+                if (temperature < 0) {
+                    throw new IllegalArgumentException("below zero");
+                }
+                super.update(temperature);
+            }
+        };
+        station.addObserver(observer);
+
+        station.setTemperature(-1.0);
+        station.setTemperature(2.0);
+
+        // The failure is reported and the mailbox keeps draining
+        awaitSize(observer.received, 1);
+        assertEquals(List.of(-1.0), failedAt);
+        assertEquals(List.of(2.0), observer.received);
+    }
+
+    @Test
+    void stationSuppressesPerObserver() {
+        WeatherStation station = new WeatherStation();
+        station.setChangeSuppression(ChangeSuppression.onChange().withAbsoluteDeadband(0.5));
+        RecordingObserver observer = new RecordingObserver();
+        station.addObserver(observer);
+
+        for (double t : new double[]{20.0, 20.1, 20.2, 21.0, 21.0, 19.0}) {
+            station.setTemperature(t);
+        }
+        assertEquals(List.of(20.0, 21.0, 19.0), observer.received);
+        assertEquals(3, station.getSuppressedCount());
+        assertEquals(3, station.getSuppressedCount(observer));
+        assertEquals(19.0, station.getTemperature());
+    }
+}